@@ -0,0 +1,62 @@
+package addressbook;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bench Data Class
+ * Deterministic contact data for the benchmarks, so runs are comparable.
+ */
+final class BenchData {
+
+    private static final String[] FIRST = {
+        "John", "Sarah", "Michael", "Emily", "David", "Laura", "James", "Olivia",
+        "Robert", "Sophia", "William", "Mia", "Daniel", "Ava", "Thomas", "Chloe"
+    };
+    private static final String[] LAST = {
+        "Smith", "Johnson", "Brown", "Davis", "Miller", "Wilson", "Moore", "Taylor",
+        "Anderson", "Thomas", "Jackson", "White", "Harris", "Martin", "Garcia", "Clark"
+    };
+    private static final String[] STREET = {
+        "Main St", "Oak Ave", "Pine Rd", "Elm St", "Maple Dr", "Cedar Ln", "Lake View", "Hill Rd"
+    };
+    private static final String[] NOTES = {
+        "Software Engineer", "Marketing Manager", "Data Analyst", "UX Designer",
+        "Call after 5pm", "Met at conference", "", "Prefers email"
+    };
+
+    private BenchData() {
+    }
+
+    static List<Contact> contacts(int count, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Contact> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Contact c = contact(random, i, "user" + i + "@example.com");
+            c.setCreatedAt(base.plusSeconds(random.nextInt(30_000_000)));
+            c.setUpdatedAt(c.getCreatedAt().plusSeconds(random.nextInt(1_000_000)));
+            list.add(c);
+        }
+        return list;
+    }
+
+    // One random contact with the given id and email
+    static Contact contact(Random random, int id, String email) {
+        return new Contact(id,
+                FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)],
+                String.valueOf(1_000_000_000L + random.nextInt(900_000_000)),
+                email,
+                (1 + random.nextInt(9999)) + " " + STREET[random.nextInt(STREET.length)],
+                NOTES[random.nextInt(NOTES.length)]);
+    }
+
+    // A name fragment of the kind users type into the search box
+    static String searchTerm(Random random) {
+        String word = random.nextBoolean() ? FIRST[random.nextInt(FIRST.length)] : LAST[random.nextInt(LAST.length)];
+        int length = Math.min(word.length(), 3 + random.nextInt(3));
+        return word.substring(0, length).toLowerCase();
+    }
+}
@@ -0,0 +1,81 @@
+package addressbook;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contact Benchmark Class
+ * Per-call cost of the Contact validators and timestamp formatting.
+ * Inputs rotate through a fixed mix of valid and invalid values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactBenchmark {
+
+    private static final String[] EMAILS = {
+        "john.smith@email.com", "a.very.long.address+tag@sub.example.co.uk",
+        "missing-at.example.com", "bad@domain", "x@y.io", ""
+    };
+    private static final String[] PHONES = {
+        "1234567890", "+441234567890", "12345", "123-456-7890", "+12345678901234", ""
+    };
+    private static final String[] NAMES = {
+        "John Smith", "Al", "X", "   ", "Maria de los Angeles Garcia", ""
+    };
+    private static final String[] ADDRESSES = {
+        "123 Main St", "12 B", "Flat 4, 221B Baker Street, London NW1 6XE", "    ", "", "Po Box 1"
+    };
+
+    private List<Contact> contacts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        contacts = BenchData.contacts(64, 7);
+    }
+
+    private int nextIndex(int length) {
+        next = (next + 1) & 63;
+        return next % length;
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return Contact.isValidEmail(EMAILS[nextIndex(EMAILS.length)]);
+    }
+
+    @Benchmark
+    public boolean isValidPhone() {
+        return Contact.isValidPhone(PHONES[nextIndex(PHONES.length)]);
+    }
+
+    @Benchmark
+    public boolean isValidName() {
+        return Contact.isValidName(NAMES[nextIndex(NAMES.length)]);
+    }
+
+    @Benchmark
+    public boolean isValidAddress() {
+        return Contact.isValidAddress(ADDRESSES[nextIndex(ADDRESSES.length)]);
+    }
+
+    @Benchmark
+    public String getFormattedCreatedAt() {
+        return contacts.get(nextIndex(64)).getFormattedCreatedAt();
+    }
+}
@@ -0,0 +1,81 @@
+package addressbook;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Contact Table Model Benchmark Class
+ * Filtering, sorting and cell rendering on the in-memory table model.
+ * filterContacts and sortByColumn replace or reorder the model's rows, so
+ * the model is reset before every invocation, outside the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ContactTableModelBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private List<Contact> data;
+    private ContactTableModel model;
+
+    @Setup(Level.Trial)
+    public void createData() {
+        data = BenchData.contacts(rows, 42);
+        model = new ContactTableModel();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetModel() {
+        model.setContacts(new ArrayList<>(data));
+    }
+
+    @Benchmark
+    public int filterContacts() {
+        model.filterContacts("smith");
+        return model.getRowCount();
+    }
+
+    @Benchmark
+    public int sortByName() {
+        model.sortByColumn(1, true);
+        return model.getRowCount();
+    }
+
+    @Benchmark
+    public int sortByCreated() {
+        model.sortByColumn(6, true);
+        return model.getRowCount();
+    }
+
+    // Every cell of every row, as a full repaint or a row sorter would read them
+    @Benchmark
+    public void getValueAt(Blackhole bh) {
+        int rowCount = model.getRowCount();
+        int columns = model.getColumnCount();
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columns; column++) {
+                bh.consume(model.getValueAt(row, column));
+            }
+        }
+    }
+}
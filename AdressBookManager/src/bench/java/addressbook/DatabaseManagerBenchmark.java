@@ -0,0 +1,113 @@
+package addressbook;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Database Manager Benchmark Class
+ * CRUD and search round trips against a running MySQL server, chosen with
+ * -Daddressbook.db.url/user/password (point it at a scratch database).
+ * Seeded rows use the bench.invalid mail domain and are removed again on
+ * teardown. The contact cache is turned off so reads measure the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Daddressbook.cache.size=0")
+public class DatabaseManagerBenchmark {
+
+    private static final String BENCH_DOMAIN = "@bench.invalid";
+
+    @Param({"10000"})
+    private int rows;
+
+    private DatabaseManager dbManager;
+    private int[] ids;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        dbManager = DatabaseManager.getInstance();
+        dbManager.initializeDatabase();
+        removeBenchRows();
+
+        List<Contact> data = BenchData.contacts(rows, 42);
+        ids = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            Contact c = data.get(i);
+            c.setEmail("seed" + i + BENCH_DOMAIN);
+            Contact saved = dbManager.insertContact(c);
+            if (saved == null) {
+                throw new IllegalStateException("Could not seed contact " + c.getEmail());
+            }
+            ids[i] = saved.getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws SQLException {
+        removeBenchRows();
+        dbManager.shutdown();
+    }
+
+    private void removeBenchRows() throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM contacts WHERE email LIKE '%" + BENCH_DOMAIN + "'");
+        }
+    }
+
+    private int randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Contact getContactById() {
+        return dbManager.getContactById(randomId());
+    }
+
+    @Benchmark
+    public Contact updateContact() {
+        Contact c = dbManager.getContactById(randomId());
+        c.setNotes("Updated " + System.nanoTime());
+        return dbManager.updateContact(c);
+    }
+
+    // Insert and delete together so the table size stays constant
+    @Benchmark
+    public boolean insertAndDeleteContact() {
+        Contact c = new Contact("Bench Insert", "1234567890",
+                "insert" + System.nanoTime() + BENCH_DOMAIN, "1 Bench Rd", "");
+        Contact saved = dbManager.insertContact(c);
+        return saved != null && dbManager.deleteContact(saved.getId());
+    }
+
+    @Benchmark
+    public List<Contact> searchContacts() {
+        return dbManager.searchContacts("smith");
+    }
+
+    @Benchmark
+    public int getContactCount() {
+        return dbManager.getContactCount();
+    }
+}
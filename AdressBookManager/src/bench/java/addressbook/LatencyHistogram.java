@@ -0,0 +1,88 @@
+package addressbook;
+
+/**
+ * Latency Histogram Class
+ * Log-linear histogram of latencies in microseconds with 32 buckets per
+ * power of two, so every percentile is within about 3% of the true value.
+ * Not thread-safe: each load test thread fills its own and they are
+ * merged at the end.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    void record(long micros) {
+        if (micros < 0) micros = 0;
+        counts[bucket(micros)]++;
+        count++;
+        sum += micros;
+        if (micros > max) max = micros;
+    }
+
+    /*
+     * Coordinated omission correction for closed-loop runs, as in
+     * HdrHistogram's recordValueWithExpectedInterval: a call that took
+     * longer than the expected interval also stood in for the calls that
+     * would have been issued meanwhile, so those are back-filled with the
+     * latencies they would have seen.
+     */
+    void recordCorrected(long micros, long expectedIntervalMicros) {
+        record(micros);
+        if (expectedIntervalMicros <= 0) return;
+        for (long missed = micros - expectedIntervalMicros; missed >= expectedIntervalMicros;
+             missed -= expectedIntervalMicros) {
+            record(missed);
+        }
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() { return count; }
+    long getMax() { return max; }
+
+    double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Upper bound of the bucket holding the quantile, capped at the maximum
+    long percentile(double quantile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
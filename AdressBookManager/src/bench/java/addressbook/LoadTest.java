@@ -0,0 +1,368 @@
+package addressbook;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load Test Class
+ * Drives a weighted mix of DatabaseManager calls from many threads against
+ * a running MySQL server (chosen with -Daddressbook.db.url/user/password)
+ * and reports throughput, latency percentiles and errors per operation.
+ *
+ * Two workload models:
+ *  - closed (default): each thread issues its next call as soon as the
+ *    previous one returns. Latencies are also reported corrected for
+ *    coordinated omission, using the mean service time seen in warmup as
+ *    the expected interval.
+ *  - open (--rate=N): calls are scheduled at N per second overall, and
+ *    latency is measured from the scheduled start, so time spent queued
+ *    behind a slow call counts against it.
+ *
+ * Options, all --name=value: threads (16), warmup seconds (10), duration
+ * seconds (30), rate per second (0 = closed), seed rows (10000), random
+ * seed (42), and mix as op=weight pairs
+ * (search=40,get=40,insert=10,update=5,delete=5).
+ *
+ * Rows are seeded and written with the load.invalid mail domain and are
+ * removed at the end. Gets, searches and updates use the seeded rows;
+ * deletes remove rows the same thread inserted, and turn into inserts
+ * while a thread has none. Updates keep the seeded email, known from
+ * seeding, so their latency covers the update alone.
+ *
+ *   mvn -Pbench,load verify -Dload.args="--threads=64 --rate=2000"
+ */
+public final class LoadTest {
+
+    private static final String LOAD_DOMAIN = "@load.invalid";
+
+    enum Operation { SEARCH, GET, INSERT, UPDATE, DELETE }
+
+    private static final double[] PERCENTILES = { 0.50, 0.90, 0.99, 0.999 };
+
+    private final DatabaseManager dbManager;
+    private final int threads;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final double rate;
+    private final int seedRows;
+    private final long seed;
+    private final int[] weights = new int[Operation.values().length];
+    private int[] ids;
+    private String[] emails;
+
+    LoadTest(DatabaseManager dbManager, Map<String, String> options) {
+        this.dbManager = dbManager;
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "10")));
+        this.durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        this.seedRows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        for (String pair : options.getOrDefault("mix", "search=40,get=40,insert=10,update=5,delete=5").split(",")) {
+            String[] kv = pair.split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry: " + pair);
+            }
+            weights[Operation.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = Integer.parseInt(kv[1].trim());
+        }
+        if (threads < 1 || durationNanos <= 0 || rate < 0) {
+            throw new IllegalArgumentException("threads and duration must be positive, rate not negative");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        dbManager.initializeDatabase();
+        LoadTest test = new LoadTest(dbManager, options);
+        try {
+            test.seedRows();
+            System.out.print(test.run());
+            System.out.print(dbManager.getMetrics().dump());
+        } finally {
+            test.removeLoadRows();
+            dbManager.shutdown();
+        }
+    }
+
+    private void seedRows() throws SQLException {
+        removeLoadRows();
+        Random random = new Random(seed);
+        ids = new int[seedRows];
+        emails = new String[seedRows];
+        for (int i = 0; i < seedRows; i++) {
+            Contact saved = dbManager.insertContact(BenchData.contact(random, 0, "seed" + i + LOAD_DOMAIN));
+            if (saved == null) {
+                throw new IllegalStateException("Could not seed contact " + i);
+            }
+            ids[i] = saved.getId();
+            emails[i] = saved.getEmail();
+        }
+        System.out.println("Seeded " + seedRows + " contacts");
+    }
+
+    private void removeLoadRows() throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM contacts WHERE email LIKE '%" + LOAD_DOMAIN + "'");
+        }
+    }
+
+    String run() throws InterruptedException {
+        Worker[] workers = new Worker[threads];
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong tickets = new AtomicLong();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Worker(t, start, measureStart, end, tickets, done);
+            Thread thread = new Thread(workers[t], "load-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        return report(workers, measureStart);
+    }
+
+    private String report(Worker[] workers, long measureStart) {
+        Map<Operation, Stats> totals = new EnumMap<>(Operation.class);
+        long lastFinish = measureStart;
+        long late = 0;
+        for (Operation op : Operation.values()) {
+            totals.put(op, new Stats());
+        }
+        for (Worker w : workers) {
+            for (Operation op : Operation.values()) {
+                totals.get(op).add(w.stats.get(op));
+            }
+            lastFinish = Math.max(lastFinish, w.lastFinish);
+            late += w.late;
+        }
+        double seconds = (lastFinish - measureStart) / 1e9;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%s model, %d threads, %.1f s measured%s%n",
+                                rate > 0 ? "Open" : "Closed", threads, seconds,
+                                rate > 0 ? String.format(Locale.ROOT, ", target %.0f ops/s", rate) : ""));
+        sb.append(String.format(Locale.ROOT, "%-8s %10s %8s %10s %9s %9s %9s %9s %9s %9s%n",
+                                "op", "calls", "errors", "ops/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Stats all = new Stats();
+        for (Operation op : Operation.values()) {
+            Stats s = totals.get(op);
+            if (s.latency.getCount() == 0) continue;
+            appendRow(sb, op.name().toLowerCase(Locale.ROOT), s.latency, s.errors, seconds);
+            all.add(s);
+        }
+        appendRow(sb, "total", all.latency, all.errors, seconds);
+
+        if (rate > 0) {
+            sb.append(String.format(Locale.ROOT,
+                    "Latency is measured from each call's scheduled start; %d calls started late%n", late));
+        } else {
+            sb.append("Corrected for coordinated omission (expected interval = warmup mean per thread):\n");
+            for (Operation op : Operation.values()) {
+                Stats s = totals.get(op);
+                if (s.corrected.getCount() == 0) continue;
+                appendRow(sb, op.name().toLowerCase(Locale.ROOT), s.corrected, s.errors, seconds);
+            }
+            appendRow(sb, "total", all.corrected, all.errors, seconds);
+        }
+        return sb.toString();
+    }
+
+    private static void appendRow(StringBuilder sb, String name, LatencyHistogram h, long errors, double seconds) {
+        sb.append(String.format(Locale.ROOT, "%-8s %10d %8d %10.1f %9.2f", name, h.getCount(), errors,
+                                seconds > 0 ? h.getCount() / seconds : 0, h.getMean() / 1000));
+        for (double p : PERCENTILES) {
+            sb.append(String.format(Locale.ROOT, " %9.2f", h.percentile(p) / 1000.0));
+        }
+        sb.append(String.format(Locale.ROOT, " %9.2f%n", h.getMax() / 1000.0));
+    }
+
+    /**
+     * Latencies and errors of one operation.
+     */
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram corrected = new LatencyHistogram();
+        long errors;
+
+        void add(Stats other) {
+            latency.add(other.latency);
+            corrected.add(other.corrected);
+            errors += other.errors;
+        }
+    }
+
+    /**
+     * One load thread with its own random stream, statistics and inserted rows.
+     */
+    private final class Worker implements Runnable {
+        private final int index;
+        private final long start;
+        private final long measureStart;
+        private final long end;
+        private final AtomicLong tickets;
+        private final CountDownLatch done;
+        private final Random random;
+        private final List<Integer> inserted = new ArrayList<>();
+        private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        private final int totalWeight;
+        private long lastFinish;
+        private long late;
+        private long inserts;
+        private long warmupCalls;
+        private long warmupMicros;
+
+        Worker(int index, long start, long measureStart, long end, AtomicLong tickets, CountDownLatch done) {
+            this.index = index;
+            this.start = start;
+            this.measureStart = measureStart;
+            this.end = end;
+            this.tickets = tickets;
+            this.done = done;
+            this.random = new Random(seed * 31 + index);
+            for (Operation op : Operation.values()) {
+                stats.put(op, new Stats());
+            }
+            int sum = 0;
+            for (int w : weights) sum += w;
+            if (sum <= 0) {
+                throw new IllegalArgumentException("The operation mix has no weight");
+            }
+            this.totalWeight = sum;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (rate > 0) {
+                    runOpen();
+                } else {
+                    runClosed();
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        // Back-to-back calls; the expected interval for the correction is the warmup mean
+        private void runClosed() {
+            waitUntil(start);
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                Operation op = nextOperation();
+                boolean ok = call(op);
+                long finish = System.nanoTime();
+                long micros = (finish - now) / 1000;
+                if (now < measureStart) {
+                    warmupCalls++;
+                    warmupMicros += micros;
+                    continue;
+                }
+                Stats s = stats.get(op);
+                s.latency.record(micros);
+                s.corrected.recordCorrected(micros, warmupCalls > 0 ? warmupMicros / warmupCalls : 0);
+                if (!ok) s.errors++;
+                lastFinish = finish;
+            }
+        }
+
+        // Calls are taken from one global schedule; latency counts from the scheduled time
+        private void runOpen() {
+            long interval = (long) (1e9 / rate);
+            while (true) {
+                long scheduled = start + tickets.getAndIncrement() * interval;
+                if (scheduled >= end) return;
+                waitUntil(scheduled);
+                long delay = System.nanoTime() - scheduled;
+
+                Operation op = nextOperation();
+                boolean ok = call(op);
+                long finish = System.nanoTime();
+                if (scheduled < measureStart) continue;
+
+                if (delay > interval) late++;
+                Stats s = stats.get(op);
+                s.latency.record((finish - scheduled) / 1000);
+                if (!ok) s.errors++;
+                lastFinish = finish;
+            }
+        }
+
+        private Operation nextOperation() {
+            int pick = random.nextInt(totalWeight);
+            for (Operation op : Operation.values()) {
+                pick -= weights[op.ordinal()];
+                if (pick < 0) {
+                    return op == Operation.DELETE && inserted.isEmpty() ? Operation.INSERT : op;
+                }
+            }
+            return Operation.GET;
+        }
+
+        // DatabaseManager reports failures as null or false; searches use the throwing variant
+        private boolean call(Operation op) {
+            switch (op) {
+                case SEARCH:
+                    try {
+                        dbManager.searchContactsChecked(BenchData.searchTerm(random), null, null, 0, 0);
+                        return true;
+                    } catch (SQLException e) {
+                        return false;
+                    }
+                case GET:
+                    return dbManager.getContactById(randomSeedId()) != null;
+                case INSERT: {
+                    String email = "t" + index + "-" + (inserts++) + "-" + seed + LOAD_DOMAIN;
+                    Contact saved = dbManager.insertContact(BenchData.contact(random, 0, email));
+                    if (saved == null) return false;
+                    inserted.add(saved.getId());
+                    return true;
+                }
+                case UPDATE: {
+                    int row = random.nextInt(ids.length);
+                    Contact c = BenchData.contact(random, ids[row], emails[row]);
+                    return dbManager.updateContact(c) != null;
+                }
+                case DELETE:
+                    return dbManager.deleteContact(inserted.remove(inserted.size() - 1));
+                default:
+                    throw new IllegalStateException(op.name());
+            }
+        }
+
+        private int randomSeedId() {
+            return ids[random.nextInt(ids.length)];
+        }
+
+        private void waitUntil(long deadline) {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+}
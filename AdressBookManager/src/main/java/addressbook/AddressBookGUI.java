@@ -1,486 +1,968 @@
-package addressbook;
-
-import javax.swing.*;
-import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.JTableHeader;
-import javax.swing.table.TableRowSorter;
-import javax.swing.filechooser.FileNameExtensionFilter;
-import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.List;
-
-/**
- * Main GUI Class for Address Book Management System
- * Provides the complete user interface using Java Swing
- */
-public class AddressBookGUI extends JFrame {
-    private DatabaseManager dbManager;
-    private ContactTableModel tableModel;
-    private JTable contactTable;
-    private JTextField searchField;
-    private JTextField nameField, phoneField, emailField, addressField, notesField;
-    private JButton addButton, updateButton, deleteButton, clearButton;
-    private JButton exportButton, importButton, backupButton, themeButton;
-    private JLabel statusLabel;
-    private Contact selectedContact;
-    private boolean isDarkMode = false;
-    
-    // Color themes
-    private final Color LIGHT_BG = new Color(248, 249, 250);
-    private final Color DARK_BG = new Color(33, 37, 41);
-    private final Color LIGHT_PANEL = Color.WHITE;
-    private final Color DARK_PANEL = new Color(52, 58, 64);
-    private final Color LIGHT_TEXT = Color.BLACK;
-    private final Color DARK_TEXT = Color.WHITE;
-    private final Color ACCENT_COLOR = new Color(0, 123, 255);
-    
-    public AddressBookGUI() {
-        dbManager = DatabaseManager.getInstance();
-        dbManager.initializeDatabase();
-        dbManager.insertSampleData(); // Add sample data
-        
-        initializeComponents();
-        setupLayout();
-        loadContacts();
-        applyTheme();
-        
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(1200, 800);
-        setLocationRelativeTo(null);
-        setTitle("Address Book Management System v2.0");
-        setVisible(true);
-    }
-    
-    private void initializeComponents() {
-        // Initialize table and model
-        tableModel = new ContactTableModel();
-        contactTable = new JTable(tableModel);
-        
-        // Configure table
-        contactTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        contactTable.setRowHeight(30);
-        contactTable.getSelectionModel().addListSelectionListener(e -> {
-            if (!e.getValueIsAdjusting()) {
-                int selectedRow = contactTable.getSelectedRow();
-                if (selectedRow >= 0) {
-                    selectedContact = tableModel.getContactAt(selectedRow);
-                    populateFields();
-                }
-            }
-        });
-        
-        // Add double-click listener for editing
-        contactTable.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseClicked(MouseEvent e) {
-                if (e.getClickCount() == 2) {
-                    int row = contactTable.rowAtPoint(e.getPoint());
-                    if (row >= 0) {
-                        selectedContact = tableModel.getContactAt(row);
-                        populateFields();
-                    }
-                }
-            }
-        });
-        
-        // Configure table header
-        JTableHeader header = contactTable.getTableHeader();
-        header.setFont(new Font("Arial", Font.BOLD, 12));
-        header.setReorderingAllowed(false);
-        
-        // Add table sorter
-        TableRowSorter<ContactTableModel> sorter = new TableRowSorter<>(tableModel);
-        contactTable.setRowSorter(sorter);
-        
-        // Initialize form fields
-        nameField = new JTextField(20);
-        phoneField = new JTextField(20);
-        emailField = new JTextField(20);
-        addressField = new JTextField(20);
-        notesField = new JTextField(20);
-        
-        // Initialize search field with proper listener
-        searchField = new JTextField(20);
-        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { performSearch(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { performSearch(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { performSearch(); }
-        });
-        
-        // Initialize buttons
-        addButton = new JButton("Add Contact");
-        updateButton = new JButton("Update Contact");
-        deleteButton = new JButton("Delete Contact");
-        clearButton = new JButton("Clear Fields");
-        exportButton = new JButton("Export CSV");
-        importButton = new JButton("Import CSV");
-        backupButton = new JButton("Backup DB");
-        themeButton = new JButton("🌙 Dark Mode");
-        
-        // Button listeners
-        addButton.addActionListener(e -> addContact());
-        updateButton.addActionListener(e -> updateContact());
-        deleteButton.addActionListener(e -> deleteContact());
-        clearButton.addActionListener(e -> clearFields());
-        exportButton.addActionListener(e -> exportToCSV());
-        importButton.addActionListener(e -> importFromCSV());
-        backupButton.addActionListener(e -> backupDatabase());
-        themeButton.addActionListener(e -> toggleTheme());
-        
-        // Status label
-        statusLabel = new JLabel("Ready");
-        statusLabel.setBorder(new EmptyBorder(5, 10, 5, 10));
-        
-        // Initially disable update and delete buttons
-        updateButton.setEnabled(false);
-        deleteButton.setEnabled(false);
-    }
-    
-    private void setupLayout() {
-        setLayout(new BorderLayout(10, 10));
-        
-        // Top panel - Search and theme toggle
-        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        topPanel.add(new JLabel("Search:"));
-        topPanel.add(searchField);
-        topPanel.add(Box.createHorizontalStrut(20));
-        topPanel.add(themeButton);
-        
-        // Form panel
-        JPanel formPanel = new JPanel(new GridBagLayout());
-        formPanel.setBorder(BorderFactory.createTitledBorder("Contact Information"));
-        
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(5, 5, 5, 5);
-        gbc.anchor = GridBagConstraints.WEST;
-        
-        // Add form fields
-        gbc.gridx = 0; gbc.gridy = 0;
-        formPanel.add(new JLabel("Name:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(nameField, gbc);
-        
-        gbc.gridx = 0; gbc.gridy = 1;
-        formPanel.add(new JLabel("Phone:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(phoneField, gbc);
-        
-        gbc.gridx = 0; gbc.gridy = 2;
-        formPanel.add(new JLabel("Email:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(emailField, gbc);
-        
-        gbc.gridx = 0; gbc.gridy = 3;
-        formPanel.add(new JLabel("Address:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(addressField, gbc);
-        
-        gbc.gridx = 0; gbc.gridy = 4;
-        formPanel.add(new JLabel("Notes:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(notesField, gbc);
-        
-        // Button panel
-        JPanel buttonPanel = new JPanel(new FlowLayout());
-        buttonPanel.add(addButton);
-        buttonPanel.add(updateButton);
-        buttonPanel.add(deleteButton);
-        buttonPanel.add(clearButton);
-        buttonPanel.add(exportButton);
-        buttonPanel.add(importButton);
-        buttonPanel.add(backupButton);
-        
-        // Left panel - Form and buttons
-        JPanel leftPanel = new JPanel(new BorderLayout());
-        leftPanel.add(formPanel, BorderLayout.CENTER);
-        leftPanel.add(buttonPanel, BorderLayout.SOUTH);
-        leftPanel.setPreferredSize(new Dimension(400, 0));
-        
-        // Table panel
-        JScrollPane scrollPane = new JScrollPane(contactTable);
-        scrollPane.setBorder(BorderFactory.createTitledBorder("Contacts"));
-        
-        // Main layout
-        add(topPanel, BorderLayout.NORTH);
-        add(leftPanel, BorderLayout.WEST);
-        add(scrollPane, BorderLayout.CENTER);
-        add(statusLabel, BorderLayout.SOUTH);
-    }
-    
-    private void loadContacts() {
-        List<Contact> contacts = dbManager.getAllContacts();
-        tableModel.setContacts(contacts);
-        updateStatus("Loaded " + contacts.size() + " contacts");
-    }
-    
-    private void performSearch() {
-        String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty()) {
-            loadContacts();
-        } else {
-            List<Contact> contacts = dbManager.searchContacts(searchTerm);
-            tableModel.setContacts(contacts);
-            updateStatus("Found " + contacts.size() + " contacts matching '" + searchTerm + "'");
-        }
-    }
-    
-    private void addContact() {
-        if (!validateFields()) return;
-        
-        Contact contact = new Contact(
-            nameField.getText().trim(),
-            phoneField.getText().trim(),
-            emailField.getText().trim(),
-            addressField.getText().trim(),
-            notesField.getText().trim()
-        );
-        
-        if (dbManager.insertContact(contact)) {
-            loadContacts();
-            clearFields();
-            updateStatus("Contact added successfully!");
-        } else {
-            showError("Failed to add contact. Please check if email already exists.");
-        }
-    }
-    
-    private void updateContact() {
-        if (selectedContact == null) {
-            showError("Please select a contact to update.");
-            return;
-        }
-        
-        if (!validateFields()) return;
-        
-        selectedContact.setName(nameField.getText().trim());
-        selectedContact.setPhone(phoneField.getText().trim());
-        selectedContact.setEmail(emailField.getText().trim());
-        selectedContact.setAddress(addressField.getText().trim());
-        selectedContact.setNotes(notesField.getText().trim());
-        
-        if (dbManager.updateContact(selectedContact)) {
-            loadContacts();
-            clearFields();
-            updateStatus("Contact updated successfully!");
-        } else {
-            showError("Failed to update contact.");
-        }
-    }
-    
-    private void deleteContact() {
-        if (selectedContact == null) {
-            showError("Please select a contact to delete.");
-            return;
-        }
-        
-        int result = JOptionPane.showConfirmDialog(
-            this,
-            "Are you sure you want to delete this contact?\n" + selectedContact.getName(),
-            "Confirm Delete",
-            JOptionPane.YES_NO_OPTION
-        );
-        
-        if (result == JOptionPane.YES_OPTION) {
-            if (dbManager.deleteContact(selectedContact.getId())) {
-                loadContacts();
-                clearFields();
-                updateStatus("Contact deleted successfully!");
-            } else {
-                showError("Failed to delete contact.");
-            }
-        }
-    }
-    
-    private void clearFields() {
-        nameField.setText("");
-        phoneField.setText("");
-        emailField.setText("");
-        addressField.setText("");
-        notesField.setText("");
-        selectedContact = null;
-        updateButton.setEnabled(false);
-        deleteButton.setEnabled(false);
-        contactTable.clearSelection();
-    }
-    
-    private void populateFields() {
-        if (selectedContact != null) {
-            nameField.setText(selectedContact.getName());
-            phoneField.setText(selectedContact.getPhone());
-            emailField.setText(selectedContact.getEmail());
-            addressField.setText(selectedContact.getAddress());
-            notesField.setText(selectedContact.getNotes());
-            updateButton.setEnabled(true);
-            deleteButton.setEnabled(true);
-        }
-    }
-    
-    private boolean validateFields() {
-        if (nameField.getText().trim().isEmpty()) {
-            showError("Name is required.");
-            nameField.requestFocus();
-            return false;
-        }
-        
-        if (!Contact.isValidName(nameField.getText().trim())) {
-            showError("Name must be at least 2 characters long.");
-            nameField.requestFocus();
-            return false;
-        }
-        
-        if (!Contact.isValidPhone(phoneField.getText().trim())) {
-            showError("Please enter a valid phone number (10-15 digits).");
-            phoneField.requestFocus();
-            return false;
-        }
-        
-        if (!Contact.isValidEmail(emailField.getText().trim())) {
-            showError("Please enter a valid email address.");
-            emailField.requestFocus();
-            return false;
-        }
-        
-        if (!Contact.isValidAddress(addressField.getText().trim())) {
-            showError("Address must be at least 5 characters long.");
-            addressField.requestFocus();
-            return false;
-        }
-        
-        return true;
-    }
-    
-    private void exportToCSV() {
-        JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
-        fileChooser.setSelectedFile(new File("contacts_backup.csv"));
-        
-        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try {
-                File file = fileChooser.getSelectedFile();
-                FileWriter writer = new FileWriter(file);
-                
-                // Write header
-                writer.write("Name,Phone,Email,Address,Notes,Created,Updated\n");
-                
-                // Write data
-                List<Contact> contacts = tableModel.getAllContacts();
-                for (Contact contact : contacts) {
-                    writer.write(String.format("\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\"\n",
-                        contact.getName(),
-                        contact.getPhone(),
-                        contact.getEmail(),
-                        contact.getAddress(),
-                        contact.getNotes(),
-                        contact.getFormattedCreatedAt(),
-                        contact.getFormattedUpdatedAt()
-                    ));
-                }
-                
-                writer.close();
-                updateStatus("Contacts exported to " + file.getName());
-            } catch (IOException e) {
-                showError("Failed to export contacts: " + e.getMessage());
-            }
-        }
-    }
-    
-    private void importFromCSV() {
-        JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
-        
-        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            // Implementation for CSV import would go here
-            updateStatus("CSV import feature - Implementation needed");
-        }
-    }
-    
-    private void backupDatabase() {
-        JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setFileFilter(new FileNameExtensionFilter("SQL Files", "sql"));
-        fileChooser.setSelectedFile(new File("addressbook_backup.sql"));
-        
-        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            String backupPath = fileChooser.getSelectedFile().getAbsolutePath();
-            if (dbManager.backupDatabase(backupPath)) {
-                updateStatus("Database backed up successfully!");
-            } else {
-                showError("Failed to backup database.");
-            }
-        }
-    }
-    
-    private void toggleTheme() {
-        isDarkMode = !isDarkMode;
-        applyTheme();
-        themeButton.setText(isDarkMode ? "☀️ Light Mode" : "🌙 Dark Mode");
-    }
-    
-    private void applyTheme() {
-        Color bgColor = isDarkMode ? DARK_BG : LIGHT_BG;
-        Color panelColor = isDarkMode ? DARK_PANEL : LIGHT_PANEL;
-        Color textColor = isDarkMode ? DARK_TEXT : LIGHT_TEXT;
-        
-        // Apply to main window
-        getContentPane().setBackground(bgColor);
-        
-        // Apply to all components
-        applyThemeToComponent(this, bgColor, panelColor, textColor);
-        
-        // Special handling for table
-        contactTable.setBackground(panelColor);
-        contactTable.setForeground(textColor);
-        contactTable.getTableHeader().setBackground(ACCENT_COLOR);
-        contactTable.getTableHeader().setForeground(Color.WHITE);
-        
-        repaint();
-    }
-    
-    private void applyThemeToComponent(Container container, Color bgColor, Color panelColor, Color textColor) {
-        for (Component component : container.getComponents()) {
-            if (component instanceof JPanel) {
-                component.setBackground(panelColor);
-                applyThemeToComponent((Container) component, bgColor, panelColor, textColor);
-            } else if (component instanceof JTextField) {
-                component.setBackground(panelColor);
-                component.setForeground(textColor);
-            } else if (component instanceof JLabel) {
-                component.setForeground(textColor);
-            } else if (component instanceof JButton) {
-                component.setBackground(ACCENT_COLOR);
-                component.setForeground(Color.WHITE);
-            }
-            
-            if (component instanceof Container) {
-                applyThemeToComponent((Container) component, bgColor, panelColor, textColor);
-            }
-        }
-    }
-    
-    private void updateStatus(String message) {
-        statusLabel.setText(message);
-        Timer timer = new Timer(3000, e -> statusLabel.setText("Ready"));
-        timer.setRepeats(false);
-        timer.start();
-    }
-    
-    private void showError(String message) {
-        JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
-    }
-    
-    public static void main(String[] args) {
-        try {
-            UIManager.setLookAndFeel(UIManager.getLookAndFeel());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        
-        SwingUtilities.invokeLater(() -> new AddressBookGUI());
-    }
+package addressbook;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.JTableHeader;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Main GUI Class for Address Book Management System
+ * Provides the complete user interface using Java Swing
+ */
+public class AddressBookGUI extends JFrame {
+    private DatabaseManager dbManager;
+    private ContactTableModel tableModel;
+    private JTable contactTable;
+    private JTextField searchField;
+    private JTextField nameField, phoneField, emailField, addressField, notesField;
+    private JButton addButton, updateButton, deleteButton, clearButton;
+    private JButton exportButton, importButton, backupButton, themeButton, slowQueriesButton;
+    private JLabel statusLabel;
+    private Contact selectedContact;
+    private boolean isDarkMode = false;
+    private SearchPipeline searchPipeline;
+    private int browseRequest = 0;
+    private ContactChangePoller changePoller;
+    private ContactSnapshot snapshot;
+    private Timestamp snapshotWatermark;
+    // Set while the table holds the whole book, current to the change poller's watermark
+    private boolean snapshotSynced = false;
+    private boolean snapshotDirty = false;
+    private Timer snapshotTimer;
+    private ExecutorService snapshotWriter;
+    
+    // Color themes
+    private final Color LIGHT_BG = new Color(248, 249, 250);
+    private final Color DARK_BG = new Color(33, 37, 41);
+    private final Color LIGHT_PANEL = Color.WHITE;
+    private final Color DARK_PANEL = new Color(52, 58, 64);
+    private final Color LIGHT_TEXT = Color.BLACK;
+    private final Color DARK_TEXT = Color.WHITE;
+    private final Color ACCENT_COLOR = new Color(0, 123, 255);
+    
+    private static final int SEARCH_DEBOUNCE_MS = Integer.getInteger("addressbook.search.debounceMs", 250);
+    // Above this many contacts the full list is shown page by page
+    private static final int PAGED_THRESHOLD = Integer.getInteger("addressbook.table.pagedThreshold", 10000);
+    // Hold such large books fully in memory in a CompactContactStore instead of paging them
+    private static final boolean COMPACT_TABLE = Boolean.getBoolean("addressbook.table.compact");
+    // How often to pull other clients' changes; 0 turns polling off
+    private static final int CHANGE_POLL_MS = Integer.getInteger("addressbook.changes.pollMs", 5000);
+    // Local copy of the contact list shown at startup; empty turns it off. Needs change polling to catch up
+    private static final String SNAPSHOT_FILE = System.getProperty("addressbook.snapshot.file", "contacts.snapshot");
+    // How often to rewrite the snapshot while running; 0 writes it on exit only
+    private static final int SNAPSHOT_INTERVAL_SEC = Integer.getInteger("addressbook.snapshot.intervalSec", 300);
+    
+    public AddressBookGUI() {
+        dbManager = DatabaseManager.getInstance();
+        
+        initializeComponents();
+        setupLayout();
+        applyTheme();
+        boolean restored = restoreSnapshot();
+        
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                saveSnapshotOnExit();
+            }
+        });
+        setSize(1200, 800);
+        setLocationRelativeTo(null);
+        setTitle("Address Book Management System v2.0");
+        setVisible(true);
+        
+        // Normally already done at login; a schema migration can be slow, so it runs behind the open window
+        dbManager.async().submit(() -> {
+            dbManager.initializeDatabase();
+            return null;
+        }).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                showError("Failed to initialize the database: " + error.getMessage());
+                return;
+            }
+            startChangePolling();
+            if (restored) {
+                reconcileSnapshot();
+            } else {
+                loadContacts();
+            }
+            startSnapshotWriting();
+        }, AsyncDatabaseManager.EDT);
+    }
+    
+    private void initializeComponents() {
+        // Initialize table and model
+        tableModel = new ContactTableModel();
+        contactTable = new JTable(tableModel);
+        
+        // Configure table
+        contactTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        contactTable.setRowHeight(30);
+        contactTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                int selectedRow = contactTable.getSelectedRow();
+                if (selectedRow >= 0) {
+                    selectedContact = tableModel.getContactAt(contactTable.convertRowIndexToModel(selectedRow));
+                    populateFields();
+                }
+            }
+        });
+        
+        // Add double-click listener for editing
+        contactTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    int row = contactTable.rowAtPoint(e.getPoint());
+                    if (row >= 0) {
+                        selectedContact = tableModel.getContactAt(contactTable.convertRowIndexToModel(row));
+                        populateFields();
+                    }
+                }
+            }
+        });
+        
+        // Configure table header
+        JTableHeader header = contactTable.getTableHeader();
+        header.setFont(new Font("Arial", Font.BOLD, 12));
+        header.setReorderingAllowed(false);
+        
+        // Header clicks sort the model itself, in parallel, instead of through a TableRowSorter
+        header.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = header.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    sortTable(contactTable.convertColumnIndexToModel(column));
+                }
+            }
+        });
+        tableModel.addTableModelListener(e -> updateSortIndicator());
+        
+        // Initialize form fields
+        nameField = new JTextField(20);
+        phoneField = new JTextField(20);
+        emailField = new JTextField(20);
+        addressField = new JTextField(20);
+        notesField = new JTextField(20);
+        
+        // Initialize search field with a debounced search pipeline
+        searchPipeline = new SearchPipeline(dbManager, SEARCH_DEBOUNCE_MS, new SearchPipeline.Listener() {
+            @Override
+            public void onResults(String term, List<Contact> contacts) {
+                tableModel.setContacts(contacts);
+                snapshotSynced = term.isEmpty();
+                if (term.isEmpty()) {
+                    updateStatus("Loaded " + contacts.size() + " contacts");
+                } else {
+                    updateStatus("Found " + contacts.size() + " contacts matching '" + term + "'");
+                }
+            }
+            
+            @Override
+            public void onError(String term, Throwable error) {
+                showError("Failed to load contacts: " + error.getMessage());
+            }
+        });
+        searchField = new JTextField(20);
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { performSearch(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { performSearch(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { performSearch(); }
+        });
+        
+        // Initialize buttons
+        addButton = new JButton("Add Contact");
+        updateButton = new JButton("Update Contact");
+        deleteButton = new JButton("Delete Contact");
+        clearButton = new JButton("Clear Fields");
+        exportButton = new JButton("Export CSV");
+        importButton = new JButton("Import CSV");
+        backupButton = new JButton("Backup DB");
+        themeButton = new JButton("🌙 Dark Mode");
+        slowQueriesButton = new JButton("Slow Queries");
+        
+        // Button listeners
+        addButton.addActionListener(e -> addContact());
+        updateButton.addActionListener(e -> updateContact());
+        deleteButton.addActionListener(e -> deleteContact());
+        clearButton.addActionListener(e -> clearFields());
+        exportButton.addActionListener(e -> exportToCSV());
+        importButton.addActionListener(e -> importFromCSV());
+        backupButton.addActionListener(e -> backupDatabase());
+        themeButton.addActionListener(e -> toggleTheme());
+        slowQueriesButton.addActionListener(e -> showSlowQueries());
+        
+        // Status label
+        statusLabel = new JLabel("Ready");
+        statusLabel.setBorder(new EmptyBorder(5, 10, 5, 10));
+        
+        // Initially disable update and delete buttons
+        updateButton.setEnabled(false);
+        deleteButton.setEnabled(false);
+    }
+    
+    private void setupLayout() {
+        setLayout(new BorderLayout(10, 10));
+        
+        // Top panel - Search and theme toggle
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        topPanel.add(new JLabel("Search:"));
+        topPanel.add(searchField);
+        topPanel.add(Box.createHorizontalStrut(20));
+        topPanel.add(themeButton);
+        topPanel.add(slowQueriesButton);
+        
+        // Form panel
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBorder(BorderFactory.createTitledBorder("Contact Information"));
+        
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.anchor = GridBagConstraints.WEST;
+        
+        // Add form fields
+        gbc.gridx = 0; gbc.gridy = 0;
+        formPanel.add(new JLabel("Name:"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(nameField, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 1;
+        formPanel.add(new JLabel("Phone:"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(phoneField, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 2;
+        formPanel.add(new JLabel("Email:"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(emailField, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 3;
+        formPanel.add(new JLabel("Address:"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(addressField, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 4;
+        formPanel.add(new JLabel("Notes:"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(notesField, gbc);
+        
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(addButton);
+        buttonPanel.add(updateButton);
+        buttonPanel.add(deleteButton);
+        buttonPanel.add(clearButton);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(importButton);
+        buttonPanel.add(backupButton);
+        
+        // Left panel - Form and buttons
+        JPanel leftPanel = new JPanel(new BorderLayout());
+        leftPanel.add(formPanel, BorderLayout.CENTER);
+        leftPanel.add(buttonPanel, BorderLayout.SOUTH);
+        leftPanel.setPreferredSize(new Dimension(400, 0));
+        
+        // Table panel
+        JScrollPane scrollPane = new JScrollPane(contactTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Contacts"));
+        
+        // Main layout
+        add(topPanel, BorderLayout.NORTH);
+        add(leftPanel, BorderLayout.WEST);
+        add(scrollPane, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+    }
+    
+    private void loadContacts() {
+        searchPipeline.invalidate();
+        String searchTerm = searchField.getText().trim();
+        if (searchTerm.isEmpty()) {
+            showAllContacts();
+        } else {
+            browseRequest++;
+            searchPipeline.submitNow(searchTerm);
+        }
+    }
+    
+    // Start the poller before the first load so no change falls between the two
+    private void startChangePolling() {
+        if (CHANGE_POLL_MS <= 0) return;
+        changePoller = new ContactChangePoller(dbManager, this::applyChanges, CHANGE_POLL_MS);
+        try {
+            changePoller.start();
+        } catch (SQLException e) {
+            System.err.println("Change polling disabled: " + e.getMessage());
+            changePoller = null;
+        }
+    }
+    
+    // Merge changes made by other clients into the table
+    private void applyChanges(DatabaseManager.ChangeSet changes) {
+        if (!changes.isComplete()) {
+            // Deletes older than the tombstone retention are gone; only a reload is exact
+            searchPipeline.invalidate();
+            loadContacts();
+            return;
+        }
+        applyWrite(() -> {
+            for (Contact c : changes.getUpserts()) {
+                tableModel.updateContact(c);
+            }
+            for (int id : changes.getDeletedIds()) {
+                tableModel.removeContactById(id);
+            }
+        });
+    }
+    
+    // Show the contact list saved at the last exit until the database has answered
+    private boolean restoreSnapshot() {
+        if (SNAPSHOT_FILE.isEmpty() || CHANGE_POLL_MS <= 0) return false;
+        snapshot = new ContactSnapshot(Paths.get(SNAPSHOT_FILE), dbManager.getDatabaseId());
+        ContactSnapshot.Contents contents = snapshot.read();
+        if (contents == null) return false;
+        
+        tableModel.setContacts(contents.getContacts());
+        int column = contents.getSortColumn();
+        if (column >= 0 && column < tableModel.getColumnCount()) {
+            tableModel.sortByColumn(column, contents.isSortAscending());
+        }
+        snapshotWatermark = contents.getWatermark();
+        statusLabel.setText("Showing " + contents.getContacts().size() + " saved contacts, checking for changes...");
+        return true;
+    }
+    
+    /*
+     * Catch the restored snapshot up through the change feed. Deletes made
+     * outside the application leave no tombstone, so a row count that
+     * still differs afterwards falls back to a full load.
+     */
+    private void reconcileSnapshot() {
+        int request = browseRequest;
+        dbManager.async().getContactsChangedSince(snapshotWatermark).whenCompleteAsync((changes, error) -> {
+            if (request != browseRequest) return; // Superseded by a search
+            if (error != null) {
+                showError("Failed to refresh the saved contacts: " + error.getMessage());
+                return;
+            }
+            if (!changes.isComplete()) {
+                showAllContacts(); // Saved before the tombstone retention
+                return;
+            }
+            applyChanges(changes);
+            dbManager.async().getContactCount().whenCompleteAsync((count, countError) -> {
+                if (request != browseRequest) return;
+                if (countError != null || tableModel.isPaged() || count != tableModel.getRowCount()
+                        || (count > PAGED_THRESHOLD && !COMPACT_TABLE)) {
+                    showAllContacts();
+                    return;
+                }
+                snapshotSynced = true;
+                updateStatus("Loaded " + count + " contacts (" +
+                             (changes.getUpserts().size() + changes.getDeletedIds().size()) +
+                             " changes since the last session)");
+            }, AsyncDatabaseManager.EDT);
+        }, AsyncDatabaseManager.EDT);
+    }
+    
+    // Rewrite the snapshot in the background every SNAPSHOT_INTERVAL_SEC while the table changes
+    private void startSnapshotWriting() {
+        if (snapshot == null && !SNAPSHOT_FILE.isEmpty() && CHANGE_POLL_MS > 0) {
+            snapshot = new ContactSnapshot(Paths.get(SNAPSHOT_FILE), dbManager.getDatabaseId());
+        }
+        if (snapshot == null || changePoller == null) return;
+        
+        tableModel.addTableModelListener(e -> snapshotDirty = true);
+        snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "addressbook-snapshot-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        if (SNAPSHOT_INTERVAL_SEC > 0) {
+            snapshotTimer = new Timer(SNAPSHOT_INTERVAL_SEC * 1000, e -> {
+                if (!snapshotDirty) return;
+                CompactContactStore rows = snapshotRows();
+                if (rows == null) return;
+                snapshotDirty = false;
+                Timestamp watermark = changePoller.getAppliedWatermark();
+                int column = tableModel.getSortColumn();
+                boolean ascending = tableModel.isSortAscending();
+                snapshotWriter.execute(() -> writeSnapshot(rows, watermark, column, ascending));
+            });
+            snapshotTimer.start();
+        }
+    }
+    
+    private void saveSnapshotOnExit() {
+        if (snapshotTimer != null) {
+            snapshotTimer.stop();
+        }
+        CompactContactStore rows = snapshotRows();
+        if (rows != null) {
+            writeSnapshot(rows, changePoller.getAppliedWatermark(),
+                          tableModel.getSortColumn(), tableModel.isSortAscending());
+        }
+    }
+    
+    // Copy of the table for the snapshot, or null unless it holds the whole book
+    private CompactContactStore snapshotRows() {
+        if (snapshot == null || changePoller == null || snapshotWriter == null || !snapshotSynced
+                || tableModel.isPaged() || !searchField.getText().trim().isEmpty()) {
+            return null;
+        }
+        return tableModel.copyRows();
+    }
+    
+    private void writeSnapshot(CompactContactStore rows, Timestamp watermark, int sortColumn, boolean ascending) {
+        try {
+            snapshot.write(rows, watermark, sortColumn, ascending);
+        } catch (IOException e) {
+            System.err.println("Failed to save the contact snapshot: " + e.getMessage());
+        }
+    }
+    
+    private void performSearch() {
+        String searchTerm = searchField.getText().trim();
+        if (searchTerm.isEmpty()) {
+            showAllContacts();
+        } else {
+            browseRequest++;
+            searchPipeline.submit(searchTerm);
+        }
+    }
+    
+    // Show the whole book, page by page when it is too large to load at once
+    private void showAllContacts() {
+        searchPipeline.cancel();
+        snapshotSynced = false;
+        int request = ++browseRequest;
+        dbManager.async().getContactCount().whenCompleteAsync((count, error) -> {
+            if (request != browseRequest) return; // Superseded by a search
+            if (error != null) {
+                showError("Failed to load contacts: " + error.getMessage());
+                return;
+            }
+            if (count > PAGED_THRESHOLD && COMPACT_TABLE) {
+                showCompactContacts(request);
+            } else if (count > PAGED_THRESHOLD) {
+                showPagedContacts(count, tableModel.getSort());
+                updateStatus("Loaded " + count + " contacts");
+            } else {
+                searchPipeline.submitNow("");
+            }
+        }, AsyncDatabaseManager.EDT);
+    }
+    
+    // Page through the book in the given order, sorted by the database
+    private void showPagedContacts(int count, ContactSort sort) {
+        tableModel.setPagedSource(
+            (offset, previous, limit) -> dbManager.async().getContactPage(offset, previous, sort, limit),
+            count, sort);
+    }
+    
+    /*
+     * Sort by a header click; clicking the sorted column again reverses it.
+     * Paged books are re-queried in the new order, fully loaded ones are
+     * sorted in memory.
+     */
+    private void sortTable(int column) {
+        boolean ascending = tableModel.getSortColumn() != column || !tableModel.isSortAscending();
+        if (tableModel.isPaged()) {
+            ContactSort sort = new ContactSort(column, ascending);
+            showPagedContacts(tableModel.getRowCount(), sort);
+            updateStatus("Sorted by " + tableModel.getColumnName(column) + " on the server");
+            return;
+        }
+        long start = System.nanoTime();
+        tableModel.sortByColumn(column, ascending);
+        updateStatus(String.format("Sorted %d contacts by %s in %d ms", tableModel.getRowCount(),
+                                   tableModel.getColumnName(column), (System.nanoTime() - start) / 1_000_000));
+    }
+    
+    // Mark the sorted column's header with an arrow
+    private void updateSortIndicator() {
+        int sorted = tableModel.getSortColumn();
+        javax.swing.table.TableColumnModel columns = contactTable.getColumnModel();
+        for (int i = 0; i < columns.getColumnCount(); i++) {
+            javax.swing.table.TableColumn column = columns.getColumn(i);
+            int modelIndex = column.getModelIndex();
+            String name = tableModel.getColumnName(modelIndex);
+            if (modelIndex == sorted) {
+                name += tableModel.isSortAscending() ? " \u25B2" : " \u25BC";
+            }
+            column.setHeaderValue(name);
+        }
+        contactTable.getTableHeader().repaint();
+    }
+    
+    // Load the whole book into a compact column store
+    private void showCompactContacts(int request) {
+        updateStatus("Loading contacts...");
+        dbManager.async().getAllContactsCompact(null).whenCompleteAsync((store, error) -> {
+            if (request != browseRequest) return; // Superseded by a search
+            if (error != null) {
+                showError("Failed to load contacts: " + error.getMessage());
+                return;
+            }
+            tableModel.setContacts(store);
+            snapshotSynced = true;
+            updateStatus("Loaded " + store.size() + " contacts (" +
+                         store.getFootprintBytes() / (1024 * 1024) + " MB)");
+        }, AsyncDatabaseManager.EDT);
+    }
+    
+    private void addContact() {
+        if (!validateFields()) return;
+        
+        Contact contact = new Contact(
+            nameField.getText().trim(),
+            phoneField.getText().trim(),
+            emailField.getText().trim(),
+            addressField.getText().trim(),
+            notesField.getText().trim()
+        );
+        
+        dbManager.async().insertContact(contact).whenCompleteAsync((saved, error) -> {
+            if (error == null && saved != null) {
+                if (changePoller != null) changePoller.markWritten(saved);
+                applyWrite(() -> tableModel.addContact(saved));
+                clearFields();
+                updateStatus("Contact added successfully!");
+            } else {
+                showError("Failed to add contact. Please check if email already exists.");
+            }
+        }, AsyncDatabaseManager.EDT);
+    }
+    
+    private void updateContact() {
+        if (selectedContact == null) {
+            showError("Please select a contact to update.");
+            return;
+        }
+        
+        if (!validateFields()) return;
+        
+        // Edit a copy so the row keeps its old values if the update fails
+        Contact edited = new Contact(selectedContact);
+        edited.setName(nameField.getText().trim());
+        edited.setPhone(phoneField.getText().trim());
+        edited.setEmail(emailField.getText().trim());
+        edited.setAddress(addressField.getText().trim());
+        edited.setNotes(notesField.getText().trim());
+        
+        dbManager.async().updateContact(edited).whenCompleteAsync((saved, error) -> {
+            if (error == null && saved != null) {
+                if (changePoller != null) changePoller.markWritten(saved);
+                applyWrite(() -> tableModel.updateContact(saved));
+                clearFields();
+                updateStatus("Contact updated successfully!");
+            } else {
+                showError("Failed to update contact.");
+            }
+        }, AsyncDatabaseManager.EDT);
+    }
+    
+    private void deleteContact() {
+        if (selectedContact == null) {
+            showError("Please select a contact to delete.");
+            return;
+        }
+        
+        int result = JOptionPane.showConfirmDialog(
+            this,
+            "Are you sure you want to delete this contact?\n" + selectedContact.getName(),
+            "Confirm Delete",
+            JOptionPane.YES_NO_OPTION
+        );
+        
+        if (result == JOptionPane.YES_OPTION) {
+            int id = selectedContact.getId();
+            dbManager.async().deleteContact(id).whenCompleteAsync((success, error) -> {
+                if (error == null && success) {
+                    if (changePoller != null) changePoller.markDeleted(id);
+                    applyWrite(() -> tableModel.removeContactById(id));
+                    clearFields();
+                    updateStatus("Contact deleted successfully!");
+                } else {
+                    showError("Failed to delete contact.");
+                }
+            }, AsyncDatabaseManager.EDT);
+        }
+    }
+    
+    /*
+     * Apply a successful write to the table without reloading it. Paged and
+     * filtered views are re-queried instead, since the changed row may move
+     * to an unloaded page or stop matching the search.
+     */
+    private void applyWrite(Runnable change) {
+        searchPipeline.invalidate();
+        if (tableModel.isPaged() || !searchField.getText().trim().isEmpty()) {
+            loadContacts();
+        } else {
+            change.run();
+        }
+    }
+    
+    private void clearFields() {
+        nameField.setText("");
+        phoneField.setText("");
+        emailField.setText("");
+        addressField.setText("");
+        notesField.setText("");
+        selectedContact = null;
+        updateButton.setEnabled(false);
+        deleteButton.setEnabled(false);
+        contactTable.clearSelection();
+    }
+    
+    private void populateFields() {
+        if (selectedContact != null) {
+            nameField.setText(selectedContact.getName());
+            phoneField.setText(selectedContact.getPhone());
+            emailField.setText(selectedContact.getEmail());
+            addressField.setText(selectedContact.getAddress());
+            notesField.setText(selectedContact.getNotes());
+            updateButton.setEnabled(true);
+            deleteButton.setEnabled(true);
+        }
+    }
+    
+    private boolean validateFields() {
+        int violations = ContactValidator.validate(
+            nameField.getText().trim(),
+            phoneField.getText().trim(),
+            emailField.getText().trim(),
+            addressField.getText().trim()
+        );
+        if (violations == 0) {
+            return true;
+        }
+        
+        // Report every problem at once and focus the first offending field
+        List<ContactValidator.Violation> list = ContactValidator.violations(violations);
+        StringBuilder message = new StringBuilder();
+        for (ContactValidator.Violation v : list) {
+            if (message.length() > 0) message.append('\n');
+            message.append(v.getMessage());
+        }
+        showError(message.toString());
+        fieldFor(list.get(0).getField()).requestFocus();
+        return false;
+    }
+    
+    private JTextField fieldFor(ContactValidator.Field field) {
+        switch (field) {
+            case PHONE: return phoneField;
+            case EMAIL: return emailField;
+            case ADDRESS: return addressField;
+            default: return nameField;
+        }
+    }
+    
+    private void exportToCSV() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files (.csv, .csv.gz)", "csv", "gz"));
+        fileChooser.setSelectedFile(new File("contacts_backup.csv"));
+        
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile();
+            boolean gzip = file.getName().toLowerCase().endsWith(".gz");
+            
+            QueryHandle handle = new QueryHandle();
+            ProgressMonitor monitor = new ProgressMonitor(this, "Exporting contacts to " + file.getName(), "", 0, 100);
+            monitor.setMillisToDecideToPopup(300);
+            exportButton.setEnabled(false);
+            
+            // Stream the whole table from the database in the background
+            SwingWorker<Long, long[]> worker = new SwingWorker<Long, long[]>() {
+                @Override
+                protected Long doInBackground() throws Exception {
+                    ContactExporter exporter = new ContactExporter(dbManager);
+                    return exporter.export(file.toPath(), gzip, handle,
+                                           (rows, total) -> publish(new long[] { rows, total }));
+                }
+                
+                @Override
+                protected void process(List<long[]> chunks) {
+                    long[] latest = chunks.get(chunks.size() - 1);
+                    if (monitor.isCanceled()) {
+                        handle.cancel();
+                        return;
+                    }
+                    int percent = latest[1] > 0 ? (int) (latest[0] * 100 / latest[1]) : 0;
+                    monitor.setProgress(Math.min(percent, 99));
+                    monitor.setNote(latest[0] + " of " + latest[1] + " contacts");
+                }
+                
+                @Override
+                protected void done() {
+                    monitor.close();
+                    exportButton.setEnabled(true);
+                    try {
+                        long rows = get();
+                        updateStatus("Exported " + rows + " contacts to " + file.getName());
+                    } catch (java.util.concurrent.CancellationException e) {
+                        updateStatus("Export cancelled");
+                    } catch (Exception e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof java.util.concurrent.CancellationException) {
+                            updateStatus("Export cancelled");
+                        } else {
+                            showError("Failed to export contacts: " + cause.getMessage());
+                        }
+                    }
+                }
+            };
+            
+            worker.execute();
+        }
+    }
+    
+    private void importFromCSV() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files (.csv, .csv.gz)", "csv", "gz"));
+        
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile();
+            
+            String[] options = { "Skip existing", "Update existing", "Report existing", "Cancel" };
+            int choice = JOptionPane.showOptionDialog(
+                this,
+                "What should happen to rows whose email already exists?",
+                "Import Contacts",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.QUESTION_MESSAGE,
+                null, options, options[0]
+            );
+            if (choice < 0 || choice == 3) return;
+            
+            ContactImporter importer = new ContactImporter(dbManager);
+            importer.setConflictMode(ContactImporter.ConflictMode.values()[choice]);
+            
+            ProgressMonitor monitor = new ProgressMonitor(this, "Importing contacts from " + file.getName(), "", 0, 100);
+            monitor.setMillisToDecideToPopup(300);
+            importButton.setEnabled(false);
+            
+            SwingWorker<ContactImporter.ImportResult, long[]> worker =
+                new SwingWorker<ContactImporter.ImportResult, long[]>() {
+                @Override
+                protected ContactImporter.ImportResult doInBackground() throws Exception {
+                    return importer.importFile(file.toPath(),
+                        (bytes, total, rows) -> publish(new long[] { bytes, total, rows }));
+                }
+                
+                @Override
+                protected void process(List<long[]> chunks) {
+                    long[] latest = chunks.get(chunks.size() - 1);
+                    if (monitor.isCanceled()) {
+                        importer.cancel();
+                        return;
+                    }
+                    int percent = latest[1] > 0 ? (int) (latest[0] * 100 / latest[1]) : 0;
+                    monitor.setProgress(Math.min(percent, 99));
+                    monitor.setNote(latest[2] + " rows read");
+                }
+                
+                @Override
+                protected void done() {
+                    monitor.close();
+                    importButton.setEnabled(true);
+                    try {
+                        ContactImporter.ImportResult result = get();
+                        loadContacts();
+                        updateStatus(result.toString());
+                        if (result.getRejectedFile() != null) {
+                            JOptionPane.showMessageDialog(AddressBookGUI.this,
+                                result + "\nRejected rows were written to " + result.getRejectedFile(),
+                                "Import Finished", JOptionPane.WARNING_MESSAGE);
+                        }
+                    } catch (Exception e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof java.util.concurrent.CancellationException) {
+                            updateStatus("Import cancelled");
+                        } else {
+                            showError("Failed to import contacts: " + cause.getMessage());
+                        }
+                    }
+                }
+            };
+            
+            worker.execute();
+        }
+    }
+    
+    private void backupDatabase() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter("SQL Files", "sql"));
+        fileChooser.setSelectedFile(new File("addressbook_backup.sql"));
+        
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            String backupPath = fileChooser.getSelectedFile().getAbsolutePath();
+            dbManager.async().backupDatabase(backupPath).whenCompleteAsync((success, error) -> {
+                if (error == null && success) {
+                    updateStatus("Database backed up successfully!");
+                } else {
+                    showError("Failed to backup database.");
+                }
+            }, AsyncDatabaseManager.EDT);
+        }
+    }
+    
+    // Recent queries that ran past the slow query threshold, with their EXPLAIN plans
+    private void showSlowQueries() {
+        SlowQueryLog log = dbManager.getSlowQueryLog();
+        String[] columns = { "Time", "Operation", "ms", "Rows", "SQL" };
+        DefaultTableModel model = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        List<SlowQueryLog.Entry> entries = new ArrayList<>();
+        
+        JTable table = new JTable(model);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JTextArea details = new JTextArea(10, 80);
+        details.setEditable(false);
+        details.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        
+        // Newest first; plans arrive shortly after the entry, so refreshing picks them up
+        Runnable refresh = () -> {
+            entries.clear();
+            entries.addAll(log.getEntries());
+            Collections.reverse(entries);
+            model.setRowCount(0);
+            for (SlowQueryLog.Entry entry : entries) {
+                model.addRow(new Object[] {
+                    Contact.formatTimestamp(entry.getTime()), entry.getOperation(),
+                    String.format("%.1f", entry.getElapsedMillis()), entry.getRows(), entry.getSql()
+                });
+            }
+            details.setText("");
+        };
+        table.getSelectionModel().addListSelectionListener(e -> {
+            int row = table.getSelectedRow();
+            if (!e.getValueIsAdjusting() && row >= 0) {
+                details.setText(entries.get(row).format());
+                details.setCaretPosition(0);
+            }
+        });
+        refresh.run();
+        
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> refresh.run());
+        JButton clearLogButton = new JButton("Clear");
+        clearLogButton.addActionListener(e -> {
+            log.clear();
+            refresh.run();
+        });
+        
+        String summary = !log.isEnabled()
+            ? "The slow query log is off"
+            : "Queries slower than " + log.getThresholdMillis() + " ms"
+              + (log.getFile() != null ? ", also written to " + log.getFile().toAbsolutePath() : "");
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bottomPanel.add(new JLabel(summary));
+        bottomPanel.add(refreshButton);
+        bottomPanel.add(clearLogButton);
+        
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                                          new JScrollPane(table), new JScrollPane(details));
+        split.setResizeWeight(0.6);
+        
+        JDialog dialog = new JDialog(this, "Slow Queries", false);
+        dialog.setLayout(new BorderLayout());
+        dialog.add(split, BorderLayout.CENTER);
+        dialog.add(bottomPanel, BorderLayout.SOUTH);
+        dialog.setSize(900, 600);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+    
+    private void toggleTheme() {
+        isDarkMode = !isDarkMode;
+        applyTheme();
+        themeButton.setText(isDarkMode ? "☀️ Light Mode" : "🌙 Dark Mode");
+    }
+    
+    private void applyTheme() {
+        Color bgColor = isDarkMode ? DARK_BG : LIGHT_BG;
+        Color panelColor = isDarkMode ? DARK_PANEL : LIGHT_PANEL;
+        Color textColor = isDarkMode ? DARK_TEXT : LIGHT_TEXT;
+        
+        // Apply to main window
+        getContentPane().setBackground(bgColor);
+        
+        // Apply to all components
+        applyThemeToComponent(this, bgColor, panelColor, textColor);
+        
+        // Special handling for table
+        contactTable.setBackground(panelColor);
+        contactTable.setForeground(textColor);
+        contactTable.getTableHeader().setBackground(ACCENT_COLOR);
+        contactTable.getTableHeader().setForeground(Color.WHITE);
+        
+        repaint();
+    }
+    
+    private void applyThemeToComponent(Container container, Color bgColor, Color panelColor, Color textColor) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JPanel) {
+                component.setBackground(panelColor);
+                applyThemeToComponent((Container) component, bgColor, panelColor, textColor);
+            } else if (component instanceof JTextField) {
+                component.setBackground(panelColor);
+                component.setForeground(textColor);
+            } else if (component instanceof JLabel) {
+                component.setForeground(textColor);
+            } else if (component instanceof JButton) {
+                component.setBackground(ACCENT_COLOR);
+                component.setForeground(Color.WHITE);
+            }
+            
+            if (component instanceof Container) {
+                applyThemeToComponent((Container) component, bgColor, panelColor, textColor);
+            }
+        }
+    }
+    
+    private void updateStatus(String message) {
+        statusLabel.setText(message);
+        Timer timer = new Timer(3000, e -> statusLabel.setText("Ready"));
+        timer.setRepeats(false);
+        timer.start();
+    }
+    
+    private void showError(String message) {
+        JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+    
+    public static void main(String[] args) {
+        try {
+            UIManager.setLookAndFeel(UIManager.getLookAndFeel());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        
+        SwingUtilities.invokeLater(() -> new AddressBookGUI());
+    }
 }
\ No newline at end of file
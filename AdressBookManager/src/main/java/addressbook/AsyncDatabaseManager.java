@@ -0,0 +1,160 @@
+package addressbook;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Asynchronous Database Facade
+ * Runs DatabaseManager operations on a dedicated bounded executor and
+ * completes CompletableFutures with the results, so callers such as the
+ * Swing GUI never block on JDBC.
+ */
+public class AsyncDatabaseManager {
+
+    private static final int QUEUE_CAPACITY = Integer.getInteger("addressbook.async.queueCapacity", 256);
+
+    /** Executor that runs callbacks on the Swing event dispatch thread. */
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    private final DatabaseManager dbManager;
+    private final ThreadPoolExecutor executor;
+
+    AsyncDatabaseManager(DatabaseManager dbManager, int threads) {
+        this.dbManager = dbManager;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "addressbook-db-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public CompletableFuture<Boolean> authenticateUser(String username, String password) {
+        return submit(() -> dbManager.authenticateUser(username, password));
+    }
+
+    public CompletableFuture<Contact> insertContact(Contact c) {
+        return submit(() -> dbManager.insertContact(c));
+    }
+
+    public CompletableFuture<List<Contact>> getAllContacts() {
+        return submit(dbManager::getAllContacts);
+    }
+
+    public CompletableFuture<List<Contact>> getAllContacts(QueryHandle handle) {
+        return submit(() -> dbManager.getAllContacts(handle));
+    }
+
+    public CompletableFuture<List<Contact>> getAllContacts(QueryHandle handle, ContactSort sort) {
+        return submit(() -> dbManager.getAllContacts(handle, sort));
+    }
+
+    public CompletableFuture<CompactContactStore> getAllContactsCompact(QueryHandle handle) {
+        return submit(() -> dbManager.getAllContactsCompact(handle));
+    }
+
+    public CompletableFuture<Integer> getContactCount() {
+        return submit(dbManager::getContactCount);
+    }
+
+    /**
+     * Loads the page of contacts starting at a row offset in (name, id)
+     * order. When the previous row is known the page is a single keyset
+     * query; otherwise the starting key is looked up by offset first.
+     */
+    public CompletableFuture<List<Contact>> getContactPage(int offset, Contact previous, int limit) {
+        return getContactPage(offset, previous, ContactSort.DEFAULT, limit);
+    }
+
+    public CompletableFuture<List<Contact>> getContactPage(int offset, Contact previous, ContactSort sort, int limit) {
+        return submit(() -> dbManager.getContactPage(offset, previous, sort, limit));
+    }
+
+    public CompletableFuture<List<Contact>> searchContacts(String term) {
+        return submit(() -> dbManager.searchContacts(term));
+    }
+
+    public CompletableFuture<List<Contact>> searchContacts(String term, QueryHandle handle) {
+        return submit(() -> dbManager.searchContacts(term, handle));
+    }
+
+    public CompletableFuture<List<Contact>> searchContacts(String term, QueryHandle handle, ContactSort sort) {
+        return submit(() -> dbManager.searchContacts(term, handle, sort));
+    }
+
+    public CompletableFuture<Contact> updateContact(Contact c) {
+        return submit(() -> dbManager.updateContact(c));
+    }
+
+    public CompletableFuture<Boolean> deleteContact(int id) {
+        return submit(() -> dbManager.deleteContact(id));
+    }
+
+    public CompletableFuture<Contact> getContactById(int id) {
+        return submit(() -> dbManager.getContactById(id));
+    }
+
+    public CompletableFuture<DatabaseManager.ChangeSet> getContactsChangedSince(Timestamp watermark) {
+        return submit(() -> {
+            try {
+                return dbManager.getContactsChangedSince(watermark);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    public CompletableFuture<Boolean> backupDatabase(String backupPath) {
+        return submit(() -> dbManager.backupDatabase(backupPath));
+    }
+
+    /**
+     * Runs an arbitrary task on the database executor. When the queue is
+     * full the returned future fails with a RejectedExecutionException
+     * instead of blocking the caller.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return; // Cancelled while queued
+                }
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Number of tasks waiting for a worker thread
+    public int getQueuedTaskCount() {
+        return executor.getQueue().size();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
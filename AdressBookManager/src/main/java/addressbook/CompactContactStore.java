@@ -0,0 +1,555 @@
+package addressbook;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Compact Contact Store Class
+ * Column-oriented contact list for very large, read-mostly books. Ids sit
+ * in an int array, timestamps in epoch-millisecond long arrays and the
+ * five text fields of every row as UTF-8 slices of one shared byte array,
+ * so a row costs a few dozen bytes plus its text instead of a Contact with
+ * eight object references. get() builds a Contact view on demand; the
+ * per-field accessors read a single value without building one.
+ *
+ * Rows can be inserted, replaced and removed, so ContactTableModel can use
+ * the store as its row list. Replacing or removing a row leaves its old
+ * text behind; it is reclaimed by compact(), which runs automatically once
+ * more than half of the text array is garbage. Sort with
+ * ContactSorter.sortedOrder and permute(), which never build Contacts.
+ *
+ * indexOfId() is answered from an id to row hash that is kept up to date
+ * as rows come and go. Inserting or removing a row before the end shifts
+ * the rows after it by one, so the hash may be off by as many rows as
+ * such changes since it was built; a lookup checks that window around the
+ * recorded row, and the hash is rebuilt once the window grows past the
+ * square root of the row count.
+ */
+public class CompactContactStore extends AbstractList<Contact> implements RandomAccess {
+
+    public static final int NAME = 0;
+    public static final int PHONE = 1;
+    public static final int EMAIL = 2;
+    public static final int ADDRESS = 3;
+    public static final int NOTES = 4;
+
+    private static final int FIELDS = 5;
+    // Slice table stride: the start of every field plus the end of the last one
+    private static final int STRIDE = FIELDS + 1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private int size;
+    private int[] ids;
+    private long[] createdMillis;
+    private long[] updatedMillis;
+    private int[] slices;
+    // Bit f is set when text field f of the row is null
+    private byte[] nullFields;
+
+    private byte[] text;
+    private int textLength;
+    private int garbage;
+
+    // id -> row, built on the first indexOfId; null when it must be rebuilt
+    private IdIndex idIndex;
+    // Rows inserted or removed before the end since idIndex was built
+    private int drift;
+
+    public CompactContactStore() {
+        this(16);
+    }
+
+    public CompactContactStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        ids = new int[capacity];
+        createdMillis = new long[capacity];
+        updatedMillis = new long[capacity];
+        slices = new int[capacity * STRIDE];
+        nullFields = new byte[capacity];
+        text = new byte[capacity * 64];
+    }
+
+    public CompactContactStore(Collection<? extends Contact> contacts) {
+        this(contacts.size());
+        addAll(contacts);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // A new Contact holding the row's current values
+    @Override
+    public Contact get(int row) {
+        checkIndex(row);
+        return new Contact(ids[row],
+                           getText(row, NAME), getText(row, PHONE), getText(row, EMAIL),
+                           getText(row, ADDRESS), getText(row, NOTES),
+                           toDateTime(createdMillis[row]), toDateTime(updatedMillis[row]));
+    }
+
+    @Override
+    public Contact set(int row, Contact contact) {
+        Contact old = get(row);
+        garbage += slices[row * STRIDE + FIELDS] - slices[row * STRIDE];
+        if (idIndex != null && old.getId() != contact.getId()) {
+            idIndex.remove(old.getId());
+            idIndex.put(contact.getId(), row);
+        }
+        write(row, contact);
+        compactIfWasteful();
+        return old;
+    }
+
+    @Override
+    public void add(int row, Contact contact) {
+        if (row < 0 || row > size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+        ensureCapacity(size + 1);
+        int moved = size - row;
+        System.arraycopy(ids, row, ids, row + 1, moved);
+        System.arraycopy(createdMillis, row, createdMillis, row + 1, moved);
+        System.arraycopy(updatedMillis, row, updatedMillis, row + 1, moved);
+        System.arraycopy(nullFields, row, nullFields, row + 1, moved);
+        System.arraycopy(slices, row * STRIDE, slices, (row + 1) * STRIDE, moved * STRIDE);
+        size++;
+        write(row, contact);
+        indexAdded(row);
+        modCount++;
+    }
+
+    @Override
+    public Contact remove(int row) {
+        Contact old = get(row);
+        garbage += slices[row * STRIDE + FIELDS] - slices[row * STRIDE];
+        if (idIndex != null) {
+            idIndex.remove(old.getId());
+            if (row < size - 1) shifted();
+        }
+        int moved = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, moved);
+        System.arraycopy(createdMillis, row + 1, createdMillis, row, moved);
+        System.arraycopy(updatedMillis, row + 1, updatedMillis, row, moved);
+        System.arraycopy(nullFields, row + 1, nullFields, row, moved);
+        System.arraycopy(slices, (row + 1) * STRIDE, slices, row * STRIDE, moved * STRIDE);
+        size--;
+        modCount++;
+        compactIfWasteful();
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        textLength = 0;
+        garbage = 0;
+        idIndex = null;
+        modCount++;
+    }
+
+    // Reorder the rows so that row i becomes the old row order[i]
+    void permute(int[] order) {
+        if (order.length != size) {
+            throw new IllegalArgumentException("Permutation size " + order.length + " != " + size);
+        }
+        int[] newIds = new int[ids.length];
+        long[] newCreated = new long[createdMillis.length];
+        long[] newUpdated = new long[updatedMillis.length];
+        byte[] newNulls = new byte[nullFields.length];
+        int[] newSlices = new int[slices.length];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            newIds[i] = ids[from];
+            newCreated[i] = createdMillis[from];
+            newUpdated[i] = updatedMillis[from];
+            newNulls[i] = nullFields[from];
+            System.arraycopy(slices, from * STRIDE, newSlices, i * STRIDE, STRIDE);
+        }
+        ids = newIds;
+        createdMillis = newCreated;
+        updatedMillis = newUpdated;
+        nullFields = newNulls;
+        slices = newSlices;
+        idIndex = null;
+        modCount++;
+    }
+
+    public int getId(int row) {
+        checkIndex(row);
+        return ids[row];
+    }
+
+    // One text field (NAME .. NOTES) of the row
+    public String getText(int row, int field) {
+        checkIndex(row);
+        if ((nullFields[row] & (1 << field)) != 0) {
+            return null;
+        }
+        int start = slices[row * STRIDE + field];
+        int end = slices[row * STRIDE + field + 1];
+        return start == end ? "" : new String(text, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    // Creation time in epoch milliseconds of the local wall-clock time, or Long.MIN_VALUE
+    public long getCreatedMillis(int row) {
+        checkIndex(row);
+        return createdMillis[row];
+    }
+
+    public long getUpdatedMillis(int row) {
+        checkIndex(row);
+        return updatedMillis[row];
+    }
+
+    // Row holding the id, or -1
+    public int indexOfId(int id) {
+        if (idIndex == null) {
+            rebuildIdIndex();
+        }
+        int recorded = idIndex.get(id);
+        if (recorded < 0) {
+            return -1;
+        }
+        // Rows only ever moved by one per shift, so the id is within drift rows of where it was put
+        for (int d = 0; d <= drift; d++) {
+            int row = recorded - d;
+            if (row >= 0 && row < size && ids[row] == id) return row;
+            row = recorded + d;
+            if (row < size && ids[row] == id) return row;
+        }
+        return -1;
+    }
+
+    /**
+     * Appends a row straight from its column values, without creating a
+     * Contact. Used when streaming rows out of a ResultSet.
+     */
+    public void add(int id, String name, String phone, String email, String address, String notes,
+                    long createdMillis, long updatedMillis) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        writeRow(row, id, name, phone, email, address, notes, createdMillis, updatedMillis);
+        indexAdded(row);
+        modCount++;
+    }
+
+    // Approximate heap used by the store's arrays, in bytes
+    public long getFootprintBytes() {
+        return (long) ids.length * 4 + (long) createdMillis.length * 8 + (long) updatedMillis.length * 8
+             + (long) slices.length * 4 + nullFields.length + text.length;
+    }
+
+    // Drop text left behind by replaced and removed rows, and trim the arrays to size
+    public void compact() {
+        byte[] packed = new byte[Math.max(64, textLength - garbage)];
+        int length = 0;
+        for (int row = 0; row < size; row++) {
+            int base = row * STRIDE;
+            int start = slices[base];
+            int span = slices[base + FIELDS] - start;
+            System.arraycopy(text, start, packed, length, span);
+            int shift = length - start;
+            for (int f = 0; f <= FIELDS; f++) {
+                slices[base + f] += shift;
+            }
+            length += span;
+        }
+        text = packed;
+        textLength = length;
+        garbage = 0;
+
+        int capacity = Math.max(1, size);
+        ids = Arrays.copyOf(ids, capacity);
+        createdMillis = Arrays.copyOf(createdMillis, capacity);
+        updatedMillis = Arrays.copyOf(updatedMillis, capacity);
+        nullFields = Arrays.copyOf(nullFields, capacity);
+        slices = Arrays.copyOf(slices, capacity * STRIDE);
+    }
+
+    // An independent copy with the garbage text dropped, for saving while this store keeps changing
+    CompactContactStore copy() {
+        int capacity = Math.max(1, size);
+        CompactContactStore copy = new CompactContactStore(1);
+        copy.size = size;
+        copy.ids = Arrays.copyOf(ids, capacity);
+        copy.createdMillis = Arrays.copyOf(createdMillis, capacity);
+        copy.updatedMillis = Arrays.copyOf(updatedMillis, capacity);
+        copy.nullFields = Arrays.copyOf(nullFields, capacity);
+        copy.slices = Arrays.copyOf(slices, capacity * STRIDE);
+        copy.text = Arrays.copyOf(text, Math.max(64, textLength));
+        copy.textLength = textLength;
+        copy.garbage = garbage;
+        if (garbage > 0) {
+            copy.compact();
+        }
+        return copy;
+    }
+
+    // Bit f set for every null text field f of the row
+    byte getNullFields(int row) {
+        checkIndex(row);
+        return nullFields[row];
+    }
+
+    // Length in UTF-8 bytes of one text field of the row
+    int getTextLength(int row, int field) {
+        checkIndex(row);
+        return slices[row * STRIDE + field + 1] - slices[row * STRIDE + field];
+    }
+
+    // Put the UTF-8 bytes of one text field of the row into the buffer
+    void getTextBytes(int row, int field, ByteBuffer out) {
+        checkIndex(row);
+        int start = slices[row * STRIDE + field];
+        out.put(text, start, slices[row * STRIDE + field + 1] - start);
+    }
+
+    /**
+     * Builds a store over column arrays read back from a snapshot; the
+     * arrays are used as they are. fieldLengths holds the UTF-8 length of
+     * the five text fields of every row, laid out one after another in text.
+     */
+    static CompactContactStore fromColumns(int size, int[] ids, long[] createdMillis, long[] updatedMillis,
+                                           byte[] nullFields, int[] fieldLengths, byte[] text) {
+        CompactContactStore store = new CompactContactStore(1);
+        int[] slices = new int[Math.max(1, size) * STRIDE];
+        int offset = 0;
+        for (int row = 0; row < size; row++) {
+            int base = row * STRIDE;
+            for (int f = 0; f < FIELDS; f++) {
+                slices[base + f] = offset;
+                offset += fieldLengths[row * FIELDS + f];
+            }
+            slices[base + FIELDS] = offset;
+        }
+        if (offset != text.length) {
+            throw new IllegalArgumentException("Field lengths cover " + offset + " of " + text.length + " text bytes");
+        }
+        store.size = size;
+        store.ids = ids.length > 0 ? ids : new int[1];
+        store.createdMillis = createdMillis.length > 0 ? createdMillis : new long[1];
+        store.updatedMillis = updatedMillis.length > 0 ? updatedMillis : new long[1];
+        store.nullFields = nullFields.length > 0 ? nullFields : new byte[1];
+        store.slices = slices;
+        store.text = text.length > 0 ? text : new byte[64];
+        store.textLength = text.length;
+        return store;
+    }
+
+    public static long toMillis(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime toDateTime(long millis) {
+        if (millis == NO_TIME) return null;
+        long seconds = Math.floorDiv(millis, 1000L);
+        int nanos = (int) Math.floorMod(millis, 1000L) * 1_000_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private void write(int row, Contact c) {
+        writeRow(row, c.getId(), c.getName(), c.getPhone(), c.getEmail(), c.getAddress(), c.getNotes(),
+                 toMillis(c.getCreatedAt()), toMillis(c.getUpdatedAt()));
+    }
+
+    private void writeRow(int row, int id, String name, String phone, String email, String address,
+                          String notes, long created, long updated) {
+        ids[row] = id;
+        createdMillis[row] = created;
+        updatedMillis[row] = updated;
+        int base = row * STRIDE;
+        byte nulls = 0;
+        nulls |= appendText(base + NAME, name, NAME);
+        nulls |= appendText(base + PHONE, phone, PHONE);
+        nulls |= appendText(base + EMAIL, email, EMAIL);
+        nulls |= appendText(base + ADDRESS, address, ADDRESS);
+        nulls |= appendText(base + NOTES, notes, NOTES);
+        slices[base + FIELDS] = textLength;
+        nullFields[row] = nulls;
+    }
+
+    // Encode the value as UTF-8 at the end of the text array; returns the null bit for the field
+    private int appendText(int slot, String value, int field) {
+        slices[slot] = textLength;
+        if (value == null) {
+            return 1 << field;
+        }
+        int length = value.length();
+        ensureTextCapacity(textLength + length * 3);
+        byte[] out = text;
+        int pos = textLength;
+        for (int i = 0; i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch < 0x80) {
+                out[pos++] = (byte) ch;
+            } else if (ch < 0x800) {
+                out[pos++] = (byte) (0xC0 | (ch >> 6));
+                out[pos++] = (byte) (0x80 | (ch & 0x3F));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < length
+                       && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(ch, value.charAt(++i));
+                out[pos++] = (byte) (0xF0 | (cp >> 18));
+                out[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                out[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(ch)) {
+                out[pos++] = (byte) '?'; // Unpaired surrogate, as String.getBytes would write it
+            } else {
+                out[pos++] = (byte) (0xE0 | (ch >> 12));
+                out[pos++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (ch & 0x3F));
+            }
+        }
+        textLength = pos;
+        return 0;
+    }
+
+    // Record a new row in the id index, if there is one
+    private void indexAdded(int row) {
+        if (idIndex == null) return;
+        idIndex.put(ids[row], row);
+        if (row < size - 1) shifted();
+    }
+
+    // The rows after an insert or remove moved by one
+    private void shifted() {
+        if (++drift > Math.max(64, (int) Math.sqrt(size))) {
+            idIndex = null;
+        }
+    }
+
+    private void rebuildIdIndex() {
+        IdIndex index = new IdIndex(size);
+        // Backwards, so the first of duplicate ids wins as in a linear scan
+        for (int row = size - 1; row >= 0; row--) {
+            index.put(ids[row], row);
+        }
+        idIndex = index;
+        drift = 0;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= ids.length) return;
+        int capacity = Math.max(rows, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        createdMillis = Arrays.copyOf(createdMillis, capacity);
+        updatedMillis = Arrays.copyOf(updatedMillis, capacity);
+        nullFields = Arrays.copyOf(nullFields, capacity);
+        slices = Arrays.copyOf(slices, capacity * STRIDE);
+    }
+
+    private void ensureTextCapacity(int bytes) {
+        if (bytes <= text.length) return;
+        long capacity = Math.max(bytes, (long) text.length + (text.length >> 1));
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Contact store text exceeds 2 GB");
+        }
+        text = Arrays.copyOf(text, (int) capacity);
+    }
+
+    private void compactIfWasteful() {
+        if (garbage > (1 << 20) && garbage > textLength / 2) {
+            compact();
+        }
+    }
+
+    private void checkIndex(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Open-addressing hash from id to row over two int arrays, with linear
+     * probing and backward-shift deletion, so it holds no boxed values.
+     */
+    private static final class IdIndex {
+        private static final int FREE = Integer.MIN_VALUE;
+
+        private int[] keys;
+        private int[] rows;
+        private int count;
+
+        IdIndex(int expected) {
+            allocate(Integer.highestOneBit(Math.max(8, expected) * 2 - 1) << 1);
+        }
+
+        // Row recorded for the id, or -1
+        int get(int id) {
+            int mask = keys.length - 1;
+            for (int i = slot(id, mask); ; i = (i + 1) & mask) {
+                int key = keys[i];
+                if (key == id) return rows[i];
+                if (key == FREE) return -1;
+            }
+        }
+
+        void put(int id, int row) {
+            if ((count + 1) * 2 > keys.length) {
+                int[] oldKeys = keys;
+                int[] oldRows = rows;
+                allocate(keys.length * 2);
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != FREE) insert(oldKeys[i], oldRows[i]);
+                }
+            }
+            insert(id, row);
+        }
+
+        void remove(int id) {
+            int mask = keys.length - 1;
+            int hole = slot(id, mask);
+            while (keys[hole] != id) {
+                if (keys[hole] == FREE) return;
+                hole = (hole + 1) & mask;
+            }
+            count--;
+            // Pull later entries of the probe run back into the hole
+            for (int i = (hole + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+                int home = slot(keys[i], mask);
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    rows[hole] = rows[i];
+                    hole = i;
+                }
+            }
+            keys[hole] = FREE;
+        }
+
+        private void insert(int id, int row) {
+            int mask = keys.length - 1;
+            for (int i = slot(id, mask); ; i = (i + 1) & mask) {
+                if (keys[i] == id) {
+                    rows[i] = row;
+                    return;
+                }
+                if (keys[i] == FREE) {
+                    keys[i] = id;
+                    rows[i] = row;
+                    count++;
+                    return;
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            rows = new int[capacity];
+            Arrays.fill(keys, FREE);
+            count = 0;
+        }
+
+        private static int slot(int id, int mask) {
+            int h = id * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
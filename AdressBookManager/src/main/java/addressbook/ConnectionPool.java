@@ -0,0 +1,532 @@
+package addressbook;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connection Pool Class
+ * Bounded JDBC connection pool used by DatabaseManager.
+ * Connections are validated on borrow, idle connections above the minimum
+ * size are evicted in the background, and borrowers wait at most the
+ * configured timeout for a free connection. Each connection keeps a small
+ * LRU cache of prepared statements keyed by SQL text.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Properties properties;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    private int total;
+    private int active;
+    private int waiting;
+    private boolean closed;
+
+    public ConnectionPool(String url, Properties properties, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException(
+                    "Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.properties = properties;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = 2;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+
+        for (int i = 0; i < minSize; i++) {
+            try {
+                idle.push(new PooledConnection(openPhysical()));
+                total++;
+            } catch (SQLException e) {
+                closeAll();
+                throw new RuntimeException("Database connection failed", e);
+            }
+        }
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "addressbook-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool. The returned connection must be
+     * closed by the caller, which hands it back to the pool instead of
+     * closing the physical connection.
+     */
+    public Connection borrow() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean mayOpen = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed", "08003");
+                    }
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pop();
+                        break;
+                    }
+                    if (total < maxSize) {
+                        total++;
+                        mayOpen = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLTransientConnectionException(
+                                "Timed out after " + borrowTimeoutMillis
+                                + " ms waiting for a database connection", "08001");
+                    }
+                    waiting++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waiting--;
+                    }
+                }
+                active++;
+            } finally {
+                lock.unlock();
+            }
+
+            if (mayOpen) {
+                try {
+                    return new PooledConnection(openPhysical()).lease();
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+            }
+
+            // Validate outside the lock so a slow ping does not block other borrowers
+            if (isUsable(candidate.physical)) {
+                return candidate.lease();
+            }
+            discard(candidate);
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean healthy = isReusable(pooled.physical);
+        lock.lock();
+        try {
+            active--;
+            if (healthy && !closed) {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.push(pooled);
+            } else {
+                total--;
+                closeQuietly(pooled.physical);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        lock.lock();
+        try {
+            active--;
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (pooled != null) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    // Close connections that sat idle longer than the idle timeout, keeping minSize
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        Deque<PooledConnection> evicted = new ArrayDeque<>();
+
+        lock.lock();
+        try {
+            // Oldest connections sit at the tail of the deque
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && total > minSize) {
+                PooledConnection pooled = it.next();
+                if (pooled.lastUsed >= cutoff) {
+                    break;
+                }
+                it.remove();
+                total--;
+                evicted.add(pooled);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pooled : evicted) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        return DriverManager.getConnection(url, properties);
+    }
+
+    private boolean isUsable(Connection physical) {
+        try {
+            return physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isReusable(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection physical) {
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+            // Connection is being thrown away anyway
+        }
+    }
+
+    private void closeAll() {
+        for (PooledConnection pooled : idle) {
+            closeQuietly(pooled.physical);
+        }
+        idle.clear();
+    }
+
+    // Close the pool and every idle connection; leased connections close on return
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            total -= idle.size();
+            closeAll();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+    }
+
+    // Pool statistics
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(active, idle.size(), waiting, total, minSize, maxSize,
+                             statementCacheHits.get(), statementCacheMisses.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Point-in-time snapshot of pool usage.
+     */
+    public static final class Stats {
+        private final int active;
+        private final int idle;
+        private final int waiting;
+        private final int total;
+        private final int minSize;
+        private final int maxSize;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        Stats(int active, int idle, int waiting, int total, int minSize, int maxSize,
+              long statementCacheHits, long statementCacheMisses) {
+            this.active = active;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.total = total;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getWaiting() { return waiting; }
+        public int getTotal() { return total; }
+        public int getMinSize() { return minSize; }
+        public int getMaxSize() { return maxSize; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+
+        public double getStatementCacheHitRatio() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool{active=%d, idle=%d, waiting=%d, total=%d, min=%d, max=%d, " +
+                                 "stmtCacheHits=%d, stmtCacheMisses=%d}",
+                                 active, idle, waiting, total, minSize, maxSize,
+                                 statementCacheHits, statementCacheMisses);
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool. Each borrow hands out a fresh
+     * proxy so a caller that closes twice cannot return the connection twice.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private long lastUsed = System.currentTimeMillis();
+        // Only touched by the thread holding the lease, so no locking is needed
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /*
+         * Returns a cached statement for the SQL when one is free. A statement
+         * still open elsewhere on this connection is never handed out twice;
+         * the caller then gets a plain uncached statement.
+         */
+        PreparedStatement prepare(String sql, Integer autoGeneratedKeys) throws SQLException {
+            if (statementCacheSize == 0) {
+                statementCacheMisses.incrementAndGet();
+                return create(sql, autoGeneratedKeys);
+            }
+
+            String key = autoGeneratedKeys == null ? sql : sql + '\u0000' + autoGeneratedKeys;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse) {
+                statementCacheHits.incrementAndGet();
+                return cached.lease();
+            }
+
+            statementCacheMisses.incrementAndGet();
+            PreparedStatement ps = create(sql, autoGeneratedKeys);
+            if (cached != null) {
+                return ps;
+            }
+
+            cached = new CachedStatement(ps);
+            statements.put(key, cached);
+            evictStatements();
+            return cached.lease();
+        }
+
+        private PreparedStatement create(String sql, Integer autoGeneratedKeys) throws SQLException {
+            return autoGeneratedKeys == null
+                    ? physical.prepareStatement(sql)
+                    : physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        // Close least recently used statements beyond the cache size
+        private void evictStatements() {
+            Iterator<CachedStatement> it = statements.values().iterator();
+            while (statements.size() > statementCacheSize && it.hasNext()) {
+                CachedStatement eldest = it.next();
+                it.remove();
+                eldest.evicted = true;
+                if (!eldest.inUse) {
+                    eldest.closeQuietly();
+                }
+            }
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new LeaseHandler(this));
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+        private PooledConnection pooled;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                PooledConnection returning = pooled;
+                pooled = null;
+                if (returning != null) {
+                    release(returning);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return pooled == null || pooled.physical.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "PooledConnection[" + (pooled == null ? "returned" : pooled.physical) + "]";
+            }
+            if (pooled == null) {
+                throw new SQLException("Connection has been returned to the pool", "08003");
+            }
+            if ("prepareStatement".equals(name)) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return pooled.prepare((String) args[0], null);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return pooled.prepare((String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A prepared statement kept open across leases. Closing a lease clears
+     * its parameters and makes the statement available again.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement physical;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement lease() {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    new StatementHandler(this));
+        }
+
+        void release() {
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // Statement is being thrown away anyway
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private CachedStatement cached;
+
+        StatementHandler(CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                CachedStatement returning = cached;
+                cached = null;
+                if (returning != null) {
+                    returning.release();
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return cached == null || cached.physical.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if (cached == null) {
+                throw new SQLException("Statement is closed", "HY010");
+            }
+            try {
+                return method.invoke(cached.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
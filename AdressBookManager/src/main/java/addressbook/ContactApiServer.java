@@ -0,0 +1,586 @@
+package addressbook;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contact API Server Class
+ * Headless JSON-over-HTTP access to the contacts, served by the JDK's
+ * built-in HttpServer on top of DatabaseManager:
+ *
+ *   GET    /contacts?offset=0&limit=100&sort=name&order=asc   one page
+ *   GET    /contacts?q=term&limit=100&sort=name&order=asc     search
+ *   GET    /contacts/{id}
+ *   POST   /contacts            body: {"name": ..., "phone": ..., ...}
+ *   PUT    /contacts/{id}       body as for POST
+ *   DELETE /contacts/{id}
+ *   GET    /metrics             DatabaseMetrics dump, as text
+ *
+ * Each request runs on its own virtual thread when the runtime has them
+ * (Java 21+), otherwise on a bounded pool of platform threads. Requests
+ * queue for one of a fixed number of database permits, matched to the
+ * connection pool, and get 503 if none frees up in time, so thousands of
+ * clients can share a small pool without piling up inside it.
+ *
+ * A missing contact answers 404 and a duplicate email 409. Other database
+ * failures answer 503 when the connection was lost or none was free, and
+ * 500 otherwise, so an outage is never reported as a client error.
+ *
+ * The server does not poll the change feed. With the trigram search index
+ * (addressbook.search.index) enabled it never sees contacts written by
+ * other clients, such as the GUI or another server, until it restarts,
+ * and GET /contacts/{id} serves cached rows until they expire, which is
+ * never unless addressbook.cache.ttlMs is set.
+ */
+public class ContactApiServer {
+
+    private static final String HOST = System.getProperty("addressbook.server.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("addressbook.server.port", 8080);
+    // Pending TCP connections the kernel holds before the server accepts them
+    private static final int BACKLOG = Integer.getInteger("addressbook.server.backlog", 4096);
+    // Worker threads when virtual threads are not available
+    private static final int PLATFORM_THREADS = Integer.getInteger("addressbook.server.threads", 200);
+    // Requests running database calls at once; 0 means the connection pool's maximum size
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("addressbook.server.maxInFlight", 0);
+    private static final long ADMISSION_TIMEOUT_MS = Long.getLong("addressbook.server.admissionTimeoutMs", 2000L);
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final String[] SORT_NAMES = {
+        "id", "name", "phone", "email", "address", "notes", "created", "updated"
+    };
+
+    private final DatabaseManager dbManager;
+    private final Semaphore permits;
+    private HttpServer server;
+    private ExecutorService executor;
+    private boolean virtualThreads;
+
+    public ContactApiServer(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        int inFlight = MAX_IN_FLIGHT > 0 ? MAX_IN_FLIGHT : dbManager.getPoolStats().getMaxSize();
+        this.permits = new Semaphore(inFlight, true);
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) return;
+        executor = newRequestExecutor();
+        server = HttpServer.create(new InetSocketAddress(HOST, PORT), BACKLOG);
+        server.createContext("/contacts", this::handleContacts);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(executor);
+        server.start();
+        System.out.println("Contact API listening on http://" + HOST + ":" + server.getAddress().getPort()
+                           + (virtualThreads ? " (virtual threads)" : " (" + PLATFORM_THREADS + " threads)"));
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(1);
+        executor.shutdown();
+        server = null;
+    }
+
+    // The port actually bound, for addressbook.server.port=0
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    /*
+     * Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively
+     * so the build does not need a Java 21 compiler.
+     */
+    private ExecutorService newRequestExecutor() {
+        try {
+            ExecutorService virtual = (ExecutorService)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtualThreads = true;
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            virtualThreads = false;
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(PLATFORM_THREADS, r -> {
+                Thread t = new Thread(r, "addressbook-http-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            send(exchange, 200, "text/plain; charset=utf-8", dbManager.getMetrics().dump());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleContacts(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            Integer id = null;
+            if (!"/contacts".equals(path) && !"/contacts/".equals(path)) {
+                id = path.startsWith("/contacts/") ? parseId(path.substring("/contacts/".length())) : null;
+                if (id == null) {
+                    sendError(exchange, 404, "Not found");
+                    return;
+                }
+            }
+
+            if (id == null && "GET".equals(method)) {
+                listContacts(exchange);
+            } else if (id == null && "POST".equals(method)) {
+                createContact(exchange);
+            } else if (id != null && "GET".equals(method)) {
+                getContact(exchange, id);
+            } else if (id != null && "PUT".equals(method)) {
+                updateContact(exchange, id);
+            } else if (id != null && "DELETE".equals(method)) {
+                deleteContact(exchange, id);
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+        } catch (BadRequestException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (OverloadedException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, "Server busy, retry later");
+        } catch (SQLException e) {
+            sendDatabaseError(exchange, e);
+        } catch (RuntimeException e) {
+            System.err.println("Contact API request failed: " + e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void listContacts(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        int limit = parseInt(query.get("limit"), DEFAULT_LIMIT, 1, MAX_LIMIT, "limit");
+        ContactSort sort = parseSort(query);
+        int offset = parseInt(query.get("offset"), 0, 0, Integer.MAX_VALUE, "offset");
+        String term = query.get("q");
+
+        List<Contact> contacts;
+        if (term != null && !term.trim().isEmpty()) {
+            contacts = admit(() -> dbManager.searchContacts(term.trim(), null, sort, offset, limit));
+        } else {
+            contacts = admit(() -> dbManager.getContactPage(offset, null, sort, limit));
+        }
+
+        StringBuilder json = new StringBuilder(contacts.size() * 160 + 2).append('[');
+        for (int i = 0; i < contacts.size(); i++) {
+            if (i > 0) json.append(',');
+            appendContact(json, contacts.get(i));
+        }
+        send(exchange, 200, "application/json", json.append(']').toString());
+    }
+
+    private void getContact(HttpExchange exchange, int id) throws IOException, SQLException {
+        Contact contact = admit(() -> dbManager.getContactByIdChecked(id));
+        if (contact == null) {
+            sendError(exchange, 404, "No contact with id " + id);
+            return;
+        }
+        sendContact(exchange, 200, contact);
+    }
+
+    private void createContact(HttpExchange exchange) throws IOException, SQLException {
+        Contact contact = readContact(exchange);
+        int violations = ContactValidator.validate(contact);
+        if (violations != 0) {
+            sendError(exchange, 400, ContactValidator.describe(violations));
+            return;
+        }
+        Contact saved = admit(() -> dbManager.insertContactChecked(contact));
+        if (saved == null) {
+            sendError(exchange, 500, "Contact could not be read back after saving");
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", "/contacts/" + saved.getId());
+        sendContact(exchange, 201, saved);
+    }
+
+    private void updateContact(HttpExchange exchange, int id) throws IOException, SQLException {
+        Contact contact = readContact(exchange);
+        contact.setId(id);
+        int violations = ContactValidator.validate(contact);
+        if (violations != 0) {
+            sendError(exchange, 400, ContactValidator.describe(violations));
+            return;
+        }
+        Contact saved = admit(() -> dbManager.updateContactChecked(contact));
+        if (saved == null) {
+            sendError(exchange, 404, "No contact with id " + id);
+            return;
+        }
+        sendContact(exchange, 200, saved);
+    }
+
+    private void deleteContact(HttpExchange exchange, int id) throws IOException, SQLException {
+        if (!admit(() -> dbManager.deleteContactChecked(id))) {
+            sendError(exchange, 404, "No contact with id " + id);
+            return;
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    /*
+     * Runs a database call once a permit is free. Waiting here rather than
+     * in the connection pool keeps the pool's own queue short and turns
+     * overload into a quick 503 instead of a DatabaseManager error value.
+     */
+    private <T> T admit(DatabaseCall<T> call) throws SQLException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(ADMISSION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OverloadedException();
+        }
+        if (!acquired) {
+            throw new OverloadedException();
+        }
+        try {
+            return call.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // A DatabaseManager call that may fail with an SQLException
+    private interface DatabaseCall<T> {
+        T run() throws SQLException;
+    }
+
+    /*
+     * A duplicate key (SQLState class 23, integrity constraint) is the
+     * client's conflict; a lost or exhausted connection is worth a retry;
+     * anything else is the server's fault.
+     */
+    private static void sendDatabaseError(HttpExchange exchange, SQLException e) throws IOException {
+        String state = e.getSQLState();
+        if (state != null && state.startsWith("23")) {
+            sendError(exchange, 409, "Contact could not be saved; the email is already in use");
+        } else if (e instanceof SQLTransientException || (state != null && state.startsWith("08"))) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, "Database unavailable, retry later");
+        } else {
+            System.err.println("Contact API database call failed: " + e);
+            sendError(exchange, 500, "Database error");
+        }
+    }
+
+    private static ContactSort parseSort(Map<String, String> query) {
+        String name = query.get("sort");
+        String order = query.get("order");
+        int column = ContactSort.DEFAULT.getColumn();
+        if (name != null) {
+            column = -1;
+            for (int i = 0; i < SORT_NAMES.length; i++) {
+                if (SORT_NAMES[i].equalsIgnoreCase(name)) column = i;
+            }
+            if (column < 0) {
+                throw new BadRequestException("Unknown sort column: " + name);
+            }
+        }
+        if (order != null && !"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            throw new BadRequestException("order must be asc or desc");
+        }
+        return new ContactSort(column, !"desc".equalsIgnoreCase(order));
+    }
+
+    private static int parseInt(String value, int defaultValue, int min, int max, String name) {
+        if (value == null) return defaultValue;
+        try {
+            int n = Integer.parseInt(value);
+            if (n < min || n > max) {
+                throw new BadRequestException(name + " must be between " + min + " and " + max);
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must be a number");
+        }
+    }
+
+    private static Integer parseId(String text) {
+        try {
+            int id = Integer.parseInt(text);
+            return id > 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            try {
+                params.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+            } catch (IllegalArgumentException | UnsupportedEncodingException e) {
+                throw new BadRequestException("Malformed query string");
+            }
+        }
+        return params;
+    }
+
+    // Request body as a contact; unknown fields are ignored
+    private static Contact readContact(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && !contentType.toLowerCase(Locale.ROOT).startsWith("application/json")) {
+            throw new BadRequestException("Content-Type must be application/json");
+        }
+        Map<String, String> fields = Json.parseObject(readBody(exchange.getRequestBody()));
+        return new Contact(fields.get("name"), fields.get("phone"), fields.get("email"),
+                           fields.get("address"), fields.get("notes"));
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            if (body.size() + n > MAX_BODY_BYTES) {
+                throw new BadRequestException("Request body larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            body.write(buffer, 0, n);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void sendContact(HttpExchange exchange, int status, Contact contact) throws IOException {
+        StringBuilder json = new StringBuilder(192);
+        appendContact(json, contact);
+        send(exchange, status, "application/json", json.toString());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.appendString(json, message);
+        send(exchange, status, "application/json", json.append('}').toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void appendContact(StringBuilder json, Contact c) {
+        json.append("{\"id\":").append(c.getId());
+        json.append(",\"name\":");
+        Json.appendString(json, c.getName());
+        json.append(",\"phone\":");
+        Json.appendString(json, c.getPhone());
+        json.append(",\"email\":");
+        Json.appendString(json, c.getEmail());
+        json.append(",\"address\":");
+        Json.appendString(json, c.getAddress());
+        json.append(",\"notes\":");
+        Json.appendString(json, c.getNotes());
+        json.append(",\"createdAt\":");
+        Json.appendString(json, isoTime(c.getCreatedAt()));
+        json.append(",\"updatedAt\":");
+        Json.appendString(json, isoTime(c.getUpdatedAt()));
+        json.append('}');
+    }
+
+    private static String isoTime(LocalDateTime time) {
+        return time == null ? null : time.toString();
+    }
+
+    private static final class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static final class OverloadedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        OverloadedException() {
+            super("Overloaded", null, false, false);
+        }
+    }
+
+    /**
+     * Just enough JSON for contact bodies: a flat object whose values are
+     * strings, numbers, booleans or null. Anything else is a bad request.
+     */
+    static final class Json {
+
+        private Json() {
+        }
+
+        static void appendString(StringBuilder sb, String s) {
+            if (s == null) {
+                sb.append("null");
+                return;
+            }
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char ch = s.charAt(i);
+                switch (ch) {
+                    case '"': sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (ch < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) ch));
+                        } else {
+                            sb.append(ch);
+                        }
+                }
+            }
+            sb.append('"');
+        }
+
+        // Field values as strings; JSON null becomes a null value
+        static Map<String, String> parseObject(String text) {
+            Parser p = new Parser(text);
+            Map<String, String> fields = new HashMap<>();
+            p.skipSpace();
+            p.expect('{');
+            p.skipSpace();
+            if (p.peek() == '}') {
+                p.pos++;
+            } else {
+                while (true) {
+                    p.skipSpace();
+                    String key = p.readString();
+                    p.skipSpace();
+                    p.expect(':');
+                    p.skipSpace();
+                    fields.put(key, p.readScalar());
+                    p.skipSpace();
+                    if (p.peek() == ',') {
+                        p.pos++;
+                    } else {
+                        p.expect('}');
+                        break;
+                    }
+                }
+            }
+            p.skipSpace();
+            if (p.pos != text.length()) {
+                throw new BadRequestException("Unexpected content after JSON object");
+            }
+            return fields;
+        }
+
+        private static final class Parser {
+            private final String text;
+            private int pos;
+
+            Parser(String text) {
+                this.text = text;
+            }
+
+            char peek() {
+                if (pos >= text.length()) throw new BadRequestException("Unexpected end of JSON");
+                return text.charAt(pos);
+            }
+
+            void expect(char ch) {
+                if (peek() != ch) throw new BadRequestException("Expected '" + ch + "' at offset " + pos);
+                pos++;
+            }
+
+            void skipSpace() {
+                while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+            }
+
+            String readScalar() {
+                char ch = peek();
+                if (ch == '"') return readString();
+                int start = pos;
+                while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) pos++;
+                String literal = text.substring(start, pos);
+                if ("null".equals(literal)) return null;
+                if ("true".equals(literal) || "false".equals(literal) || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                    return literal;
+                }
+                throw new BadRequestException("Unsupported JSON value at offset " + start);
+            }
+
+            String readString() {
+                expect('"');
+                StringBuilder sb = new StringBuilder();
+                while (true) {
+                    char ch = peek();
+                    pos++;
+                    if (ch == '"') return sb.toString();
+                    if (ch != '\\') {
+                        sb.append(ch);
+                        continue;
+                    }
+                    char esc = peek();
+                    pos++;
+                    switch (esc) {
+                        case '"': case '\\': case '/': sb.append(esc); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'u':
+                            if (pos + 4 > text.length()) throw new BadRequestException("Bad \\u escape");
+                            try {
+                                sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                            } catch (NumberFormatException e) {
+                                throw new BadRequestException("Bad \\u escape");
+                            }
+                            pos += 4;
+                            break;
+                        default:
+                            throw new BadRequestException("Bad escape \\" + esc);
+                    }
+                }
+            }
+        }
+    }
+}
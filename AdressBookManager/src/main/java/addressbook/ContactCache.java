@@ -0,0 +1,168 @@
+package addressbook;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Contact Cache Class
+ * Bounded LRU cache of contacts by id with an optional time-to-live.
+ * DatabaseManager writes through it on insert and update and drops the
+ * entry on delete, so repeated lookups of hot ids never reach the
+ * database. Contacts are mutable, so copies go in and copies come out.
+ */
+public class ContactCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Integer, Entry> entries;
+
+    // Bumped by every write so a load that raced with one is not cached
+    private long writeVersion;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long loads;
+    private long loadNanos;
+
+    /**
+     * Creates a cache holding at most maxSize contacts. A ttlMillis of 0
+     * keeps entries until they are evicted or invalidated.
+     */
+    public ContactCache(int maxSize, long ttlMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > ContactCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the cached contact, or loads it with the loader on a
+     * miss. A null result from the loader is not cached.
+     */
+    public Contact get(int id, IntFunction<Contact> loader) {
+        long version;
+        synchronized (this) {
+            Entry e = entries.get(id);
+            if (e != null) {
+                if (ttlNanos == 0 || System.nanoTime() - e.loadedAt < ttlNanos) {
+                    hits++;
+                    return new Contact(e.contact);
+                }
+                entries.remove(id);
+                expirations++;
+            }
+            misses++;
+            version = writeVersion;
+        }
+
+        long start = System.nanoTime();
+        Contact loaded = loader.apply(id);
+        long elapsed = System.nanoTime() - start;
+
+        synchronized (this) {
+            loads++;
+            loadNanos += elapsed;
+            if (loaded != null && version == writeVersion) {
+                entries.put(id, new Entry(new Contact(loaded), System.nanoTime()));
+            }
+        }
+        return loaded;
+    }
+
+    // Store the persisted state of a contact after a write
+    public synchronized void put(Contact c) {
+        writeVersion++;
+        entries.put(c.getId(), new Entry(new Contact(c), System.nanoTime()));
+    }
+
+    // Drop a contact after it was deleted or changed elsewhere
+    public synchronized void invalidate(int id) {
+        writeVersion++;
+        entries.remove(id);
+    }
+
+    public synchronized void clear() {
+        writeVersion++;
+        entries.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(entries.size(), maxSize, hits, misses, evictions, expirations, loads, loadNanos);
+    }
+
+    private static final class Entry {
+        final Contact contact;
+        final long loadedAt;
+
+        Entry(Contact contact, long loadedAt) {
+            this.contact = contact;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     */
+    public static final class Stats {
+        private final int size;
+        private final int maxSize;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long loads;
+        private final long loadNanos;
+
+        Stats(int size, int maxSize, long hits, long misses, long evictions,
+              long expirations, long loads, long loadNanos) {
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.loads = loads;
+            this.loadNanos = loadNanos;
+        }
+
+        public int getSize() { return size; }
+        public int getMaxSize() { return maxSize; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getLoads() { return loads; }
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        // Mean time spent loading a missed contact from the database
+        public double getAverageLoadMillis() {
+            return loads == 0 ? 0.0 : loadNanos / 1_000_000.0 / loads;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ContactCache{size=%d, max=%d, hits=%d, misses=%d, hitRatio=%.3f, " +
+                                 "evictions=%d, expirations=%d, avgLoadMs=%.3f}",
+                                 size, maxSize, hits, misses, getHitRatio(),
+                                 evictions, expirations, getAverageLoadMillis());
+        }
+    }
+}
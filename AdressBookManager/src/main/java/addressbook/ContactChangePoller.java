@@ -0,0 +1,149 @@
+package addressbook;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contact Change Poller Class
+ * Polls DatabaseManager.getContactsChangedSince on a background thread
+ * and hands every non-empty change set to a listener on the event
+ * dispatch thread, so a client sees other clients' edits at a cost that
+ * follows the number of changes rather than the size of the table.
+ *
+ * The feed re-reads the last seconds before each watermark, so it returns
+ * recent rows again on the next poll. The poller remembers what the
+ * listener already has, including the client's own writes reported with
+ * markWritten and markDeleted, and passes on only rows that changed.
+ */
+public class ContactChangePoller {
+
+    /**
+     * Receives changes on the event dispatch thread.
+     */
+    public interface Listener {
+        void onChanges(DatabaseManager.ChangeSet changes);
+    }
+
+    private final DatabaseManager dbManager;
+    private final Listener listener;
+    private final long intervalMillis;
+
+    private ScheduledExecutorService scheduler;
+    private volatile Timestamp watermark;
+    // Watermark of the last change set the listener has been given
+    private volatile Timestamp appliedWatermark;
+    // Rows the listener already has, kept while the feed still returns them
+    private final Map<Integer, Contact> delivered = new ConcurrentHashMap<>();
+    private final Set<Integer> deliveredDeletes = ConcurrentHashMap.newKeySet();
+
+    public ContactChangePoller(DatabaseManager dbManager, Listener listener, long intervalMillis) {
+        this.dbManager = dbManager;
+        this.listener = listener;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Starts polling for changes made from now on. Call it before loading
+     * the initial contacts so nothing written in between is missed.
+     */
+    public synchronized void start() throws SQLException {
+        if (scheduler != null) return;
+        watermark = dbManager.getDatabaseTime();
+        appliedWatermark = watermark;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "contact-change-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Everything changed before this time has reached the listener, so a
+     * copy of the listener's state is current to it. Null before start().
+     */
+    public Timestamp getAppliedWatermark() {
+        return appliedWatermark;
+    }
+
+    // The listener has applied this row itself; skip it when the feed reports it
+    public void markWritten(Contact saved) {
+        delivered.put(saved.getId(), saved);
+    }
+
+    public void markDeleted(int id) {
+        deliveredDeletes.add(id);
+    }
+
+    private void poll() {
+        try {
+            DatabaseManager.ChangeSet changes = withoutDelivered(dbManager.getContactsChangedSince(watermark));
+            Timestamp next = changes.getWatermark();
+            watermark = next;
+            AsyncDatabaseManager.EDT.execute(() -> {
+                if (!changes.isEmpty() || !changes.isComplete()) {
+                    listener.onChanges(changes);
+                }
+                appliedWatermark = next;
+            });
+        } catch (SQLException e) {
+            // Keep the old watermark; the next poll picks up where this one failed
+            System.err.println("Change poll failed: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Drops the rows the listener already has. An entry is forgotten once
+     * the feed stops returning its row, which happens when the watermark
+     * has moved past the change.
+     */
+    private DatabaseManager.ChangeSet withoutDelivered(DatabaseManager.ChangeSet changes) {
+        List<Contact> upserts = new ArrayList<>();
+        Set<Integer> returned = new HashSet<>();
+        for (Contact c : changes.getUpserts()) {
+            returned.add(c.getId());
+            Contact had = delivered.put(c.getId(), c);
+            if (had == null || !sameRow(had, c)) {
+                upserts.add(c);
+            }
+        }
+        delivered.keySet().retainAll(returned);
+
+        List<Integer> deletes = new ArrayList<>();
+        for (int id : changes.getDeletedIds()) {
+            if (deliveredDeletes.add(id)) {
+                deletes.add(id);
+            }
+        }
+        deliveredDeletes.retainAll(new HashSet<>(changes.getDeletedIds()));
+
+        return new DatabaseManager.ChangeSet(upserts, deletes, changes.getWatermark(), changes.isComplete());
+    }
+
+    // TIMESTAMP has whole seconds, so two updates in one second differ only in their values
+    private static boolean sameRow(Contact a, Contact b) {
+        return Objects.equals(a.getUpdatedAt(), b.getUpdatedAt())
+            && Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getPhone(), b.getPhone())
+            && Objects.equals(a.getEmail(), b.getEmail())
+            && Objects.equals(a.getAddress(), b.getAddress())
+            && Objects.equals(a.getNotes(), b.getNotes());
+    }
+}
@@ -0,0 +1,204 @@
+package addressbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Contact Exporter Class
+ * Streams the contacts table to an RFC 4180 CSV file straight from a
+ * forward-only database cursor, so memory use stays flat however many
+ * rows are exported. Output can optionally be gzip-compressed.
+ */
+public class ContactExporter {
+
+    /**
+     * Receives progress while an export runs.
+     */
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    public static final String HEADER = "Name,Phone,Email,Address,Notes,Created,Updated";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    private static final int PROGRESS_INTERVAL = 10000;
+
+    private final DatabaseManager dbManager;
+
+    public ContactExporter(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Exports every contact to the file and returns the number of rows
+     * written. Cancelling the handle stops the query, deletes the partial
+     * file and throws CancellationException. The connection of a cancelled
+     * export is aborted rather than returned to the pool.
+     */
+    public long export(Path file, boolean gzip, QueryHandle handle, ProgressListener listener)
+            throws IOException, SQLException {
+
+        long total = dbManager.getContactCount();
+        long rows = 0;
+        boolean complete = false;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             WritableByteChannel out = gzip ? gzipChannel(channel) : channel;
+             Connection conn = dbManager.getConnection();
+             Statement st = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // Integer.MIN_VALUE makes MySQL Connector/J stream rows one at a time
+            st.setFetchSize(Integer.MIN_VALUE);
+
+            CsvWriter writer = new CsvWriter(out);
+            writer.append(HEADER).endRow();
+
+            if (handle != null) handle.attach(st);
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT name, phone, email, address, notes, created_at, updated_at " +
+                    "FROM contacts ORDER BY id")) {
+
+                while (rs.next()) {
+                    if (handle != null && handle.isCancelled()) {
+                        // Closing a streaming result set reads every remaining row first;
+                        // abort the connection instead so the pool discards it
+                        conn.abort(Runnable::run);
+                        break;
+                    }
+
+                    writer.field(rs.getString(1)).comma()
+                          .field(rs.getString(2)).comma()
+                          .field(rs.getString(3)).comma()
+                          .field(rs.getString(4)).comma()
+                          .field(rs.getString(5)).comma()
+                          .field(format(rs.getTimestamp(6))).comma()
+                          .field(format(rs.getTimestamp(7))).endRow();
+
+                    if (++rows % PROGRESS_INTERVAL == 0 && listener != null) {
+                        listener.onProgress(rows, total);
+                    }
+                }
+            } finally {
+                if (handle != null) handle.detach();
+            }
+
+            if (handle == null || !handle.isCancelled()) {
+                writer.flush();
+                complete = true;
+            }
+        } catch (SQLException e) {
+            if (handle == null || !handle.isCancelled()) throw e;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        if (!complete) {
+            throw new CancellationException("Export cancelled");
+        }
+        if (listener != null) {
+            listener.onProgress(rows, Math.max(rows, total));
+        }
+        return rows;
+    }
+
+    private static WritableByteChannel gzipChannel(FileChannel channel) throws IOException {
+        OutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), GZIP_BUFFER_SIZE);
+        return Channels.newChannel(gzip);
+    }
+
+    private static String format(Timestamp ts) {
+        return ts == null ? "" : ts.toLocalDateTime().format(Contact.TIMESTAMP_FORMAT);
+    }
+
+    /**
+     * Builds one CSV row at a time and encodes it into a large direct
+     * buffer, writing to the channel only when the buffer fills up.
+     */
+    private static final class CsvWriter {
+        private final WritableByteChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final StringBuilder row = new StringBuilder(512);
+
+        CsvWriter(WritableByteChannel out) {
+            this.out = out;
+        }
+
+        CsvWriter append(String raw) {
+            row.append(raw);
+            return this;
+        }
+
+        // Every field is quoted; embedded quotes are doubled per RFC 4180
+        CsvWriter field(String value) {
+            row.append('"');
+            if (value != null) {
+                for (int i = 0; i < value.length(); i++) {
+                    char ch = value.charAt(i);
+                    if (ch == '"') row.append('"');
+                    row.append(ch);
+                }
+            }
+            row.append('"');
+            return this;
+        }
+
+        CsvWriter comma() {
+            row.append(',');
+            return this;
+        }
+
+        void endRow() throws IOException {
+            row.append("\r\n");
+            CharBuffer chars = CharBuffer.wrap(row);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isError()) {
+                    result.throwException();
+                } else {
+                    break;
+                }
+            }
+            row.setLength(0);
+        }
+
+        void flush() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package addressbook;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contact Generator Class
+ * Produces realistic synthetic contacts for scale testing and bulk-loads
+ * them. Contact number i depends only on the seed and i, so a load is
+ * reproducible whatever the thread count. Emails are unique (the index is
+ * part of the local part, the seed part of the domain), phones pass
+ * ContactValidator, and notes range from empty to a few kilobytes.
+ *
+ * load() writes multi-row INSERTs over several pooled connections in
+ * parallel, with the secondary indexes dropped for the duration and
+ * rebuilt in one pass at the end.
+ */
+public class ContactGenerator {
+
+    /**
+     * Receives progress while a load runs; called from the loader threads.
+     */
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    private static final String[] FIRST = {
+        "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+        "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Daniel", "Lisa", "Matthew", "Nancy", "Anthony", "Betty", "Mark", "Sandra", "Steven", "Ashley",
+        "Andrew", "Emily", "Joshua", "Michelle", "Kevin", "Amanda", "Brian", "Melissa", "George", "Stephanie",
+        "Aisha", "Mohammed", "Wei", "Yuki", "Priya", "Arjun", "Sofia", "Mateo", "Olga", "Dmitri",
+        "Fatima", "Omar", "Chen", "Hana", "Lucas", "Camila", "Noah", "Amara", "Kwame", "Ingrid"
+    };
+    private static final String[] LAST = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+        "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+        "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+        "Khan", "Patel", "Singh", "Kim", "Tanaka", "Muller", "Rossi", "Novak", "Ivanova", "Okafor",
+        "Haddad", "Cohen", "Silva", "Larsen", "Dubois", "Kowalski", "Yilmaz", "Andersson", "Mensah", "Costa"
+    };
+    private static final String[] STREETS = {
+        "Main", "Oak", "Pine", "Maple", "Cedar", "Elm", "Washington", "Lake", "Hill", "Park",
+        "View", "Sunset", "Railroad", "Church", "Willow", "Mill", "River", "Forest", "Meadow", "Spring",
+        "Highland", "Chestnut", "Franklin", "Lincoln", "Jackson", "Ridge", "Valley", "Bridge", "Harbor", "Orchard"
+    };
+    private static final String[] STREET_TYPES = { "St", "Ave", "Rd", "Blvd", "Ln", "Dr", "Ct", "Way", "Pl", "Terrace" };
+    private static final String[] CITIES = {
+        "Springfield", "Riverside", "Franklin", "Greenville", "Bristol", "Clinton", "Fairview", "Salem",
+        "Madison", "Georgetown", "Arlington", "Ashland", "Dover", "Oxford", "Jackson", "Burlington",
+        "Manchester", "Milton", "Newport", "Auburn", "Dayton", "Lexington", "Milford", "Winchester"
+    };
+    private static final String[] DOMAINS = { "mail", "inbox", "post", "example", "corp", "web" };
+    private static final String[] WORDS = {
+        "call", "after", "before", "meeting", "project", "client", "prefers", "email", "phone", "weekend",
+        "office", "remote", "contract", "renewal", "invoice", "follow", "up", "next", "quarter", "budget",
+        "introduced", "by", "at", "conference", "referral", "partner", "supplier", "account", "manager", "team",
+        "birthday", "in", "march", "june", "october", "likes", "coffee", "tea", "hiking", "football",
+        "spoke", "about", "pricing", "demo", "feedback", "support", "ticket", "urgent", "pending", "review",
+        "the", "a", "and", "with", "for", "on", "new", "old", "lunch", "visit"
+    };
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2015, 1, 1, 0, 0);
+    private static final long CREATED_RANGE_SECONDS = 10L * 365 * 24 * 3600;
+    private static final long UPDATED_RANGE_SECONDS = 2L * 365 * 24 * 3600;
+
+    private static final String COLUMNS = "INSERT INTO contacts (name, phone, email, address, notes, created_at, updated_at) VALUES ";
+    private static final int PARAMS_PER_ROW = 7;
+
+    private final DatabaseManager dbManager;
+    private final long seed;
+    private final String emailSuffix;
+    private int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    private int rowsPerStatement = 500;
+    private int statementsPerCommit = 20;
+    private boolean dropIndexes = true;
+    private volatile boolean cancelled;
+
+    public ContactGenerator(DatabaseManager dbManager, long seed) {
+        this.dbManager = dbManager;
+        this.seed = seed;
+        this.emailSuffix = ".gen" + Long.toString(seed & Long.MAX_VALUE, 36) + ".test";
+    }
+
+    public void setThreads(int threads) { this.threads = Math.max(1, threads); }
+    public void setRowsPerStatement(int rowsPerStatement) { this.rowsPerStatement = Math.max(1, Math.min(rowsPerStatement, 5000)); }
+    public void setStatementsPerCommit(int statementsPerCommit) { this.statementsPerCommit = Math.max(1, statementsPerCommit); }
+    public void setDropIndexes(boolean dropIndexes) { this.dropIndexes = dropIndexes; }
+
+    // Stop after the statements in flight; committed rows stay
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Contact number index of this seed; the same arguments always give the same contact
+    public Contact contact(long index) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+
+        String first = pick(random, FIRST);
+        String last = pick(random, LAST);
+        String name = random.nextInt(5) == 0
+                ? first + " " + (char) ('A' + random.nextInt(26)) + ". " + last
+                : first + " " + last;
+        String email = first.toLowerCase(Locale.ROOT) + "." + last.toLowerCase(Locale.ROOT) + "."
+                + Long.toString(index, 36) + "@" + pick(random, DOMAINS) + emailSuffix;
+
+        LocalDateTime created = EPOCH.plusSeconds(random.nextLong(CREATED_RANGE_SECONDS));
+        LocalDateTime updated = random.nextInt(3) == 0 ? created : created.plusSeconds(random.nextLong(UPDATED_RANGE_SECONDS));
+
+        return new Contact(0, name, phone(random), email, address(random), notes(random), created, updated);
+    }
+
+    // 10 to 15 digits, optionally with a leading '+', as ContactValidator accepts
+    private static String phone(SplittableRandom random) {
+        StringBuilder sb = new StringBuilder(16);
+        int kind = random.nextInt(20);
+        int digits;
+        if (kind < 12) {
+            digits = 10;                                  // national number
+        } else if (kind < 17) {
+            sb.append("+1");
+            digits = 10;                                  // +1 and ten digits
+        } else {
+            sb.append('+').append(30 + random.nextInt(60));
+            digits = 9 + random.nextInt(4);               // +CC and 9-12 digits
+        }
+        sb.append((char) ('2' + random.nextInt(8)));
+        for (int i = 1; i < digits; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    private static String address(SplittableRandom random) {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(1 + random.nextInt(9999)).append(' ')
+          .append(pick(random, STREETS)).append(' ').append(pick(random, STREET_TYPES));
+        if (random.nextInt(4) == 0) {
+            sb.append(", Apt ").append(1 + random.nextInt(400));
+        }
+        sb.append(", ").append(pick(random, CITIES)).append(' ');
+        int zip = random.nextInt(100000);
+        for (int d = 10000; d > 0; d /= 10) {
+            sb.append((char) ('0' + zip / d % 10));
+        }
+        return sb.toString();
+    }
+
+    // Mostly short notes, with a long tail of multi-paragraph ones
+    private static String notes(SplittableRandom random) {
+        int kind = random.nextInt(10);
+        int sentences;
+        if (kind < 2) {
+            return "";
+        } else if (kind < 5) {
+            sentences = 1;
+        } else if (kind < 9) {
+            sentences = 2 + random.nextInt(7);
+        } else {
+            sentences = 20 + random.nextInt(30);
+        }
+        StringBuilder sb = new StringBuilder(sentences * 48);
+        for (int s = 0; s < sentences; s++) {
+            if (s > 0) sb.append(s % 6 == 0 ? "\n" : " ");
+            int words = 4 + random.nextInt(9);
+            for (int w = 0; w < words; w++) {
+                String word = pick(random, WORDS);
+                if (w == 0) {
+                    sb.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                } else {
+                    sb.append(' ').append(word);
+                }
+            }
+            sb.append('.');
+        }
+        return sb.toString();
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Inserts contacts 0 .. count-1 of this seed and returns timings. Fails
+     * if the first or last of them is already in the table, which means
+     * this seed has been loaded before.
+     */
+    public LoadResult load(long count, ProgressListener listener) throws SQLException {
+        if (count <= 0) {
+            return new LoadResult(0, 0, 0);
+        }
+        if (isLoaded(count)) {
+            throw new SQLException("Contacts of seed " + seed + " are already loaded; use another seed");
+        }
+
+        List<String> dropped = dropIndexes ? dbManager.dropContactIndexes() : Collections.<String>emptyList();
+        long loadStart = System.nanoTime();
+        long written;
+        try {
+            written = insertAll(count, listener);
+        } catch (SQLException | RuntimeException e) {
+            // Never leave the table without its indexes; keep whatever rows were committed
+            if (!dropped.isEmpty()) {
+                try {
+                    dbManager.rebuildContactIndexes(dropped);
+                } catch (SQLException rebuild) {
+                    e.addSuppressed(rebuild);
+                }
+            }
+            throw e;
+        } finally {
+            dbManager.invalidateCaches();
+        }
+        long loadNanos = System.nanoTime() - loadStart;
+
+        long indexStart = System.nanoTime();
+        if (!dropped.isEmpty()) {
+            dbManager.rebuildContactIndexes(dropped);
+        }
+        long indexNanos = System.nanoTime() - indexStart;
+
+        return new LoadResult(written, loadNanos / 1_000_000, indexNanos / 1_000_000);
+    }
+
+    private boolean isLoaded(long count) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM contacts WHERE email IN (?, ?)")) {
+            ps.setString(1, contact(0).getEmail());
+            ps.setString(2, contact(count - 1).getEmail());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    /*
+     * Each thread holds one pooled connection and claims ranges of
+     * statementsPerCommit full statements, committing after each range.
+     */
+    private long insertAll(long count, ProgressListener listener) throws SQLException {
+        AtomicLong next = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        long range = (long) rowsPerStatement * statementsPerCommit;
+        // One connection per thread, leaving one in the pool for everything else
+        int workers = Math.max(1, Math.min(threads, dbManager.getPoolStats().getMaxSize() - 1));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService loaders = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "addressbook-generate-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < workers; t++) {
+                futures.add(loaders.submit(() -> {
+                    insertRanges(next, range, count, written, listener);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    cancelled = true;
+                    Throwable cause = e.getCause();
+                    if (cause instanceof SQLException) throw (SQLException) cause;
+                    throw new SQLException("Bulk load failed", cause);
+                } catch (InterruptedException e) {
+                    cancelled = true;
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted during bulk load", e);
+                }
+            }
+        } finally {
+            loaders.shutdownNow();
+        }
+        return written.get();
+    }
+
+    private void insertRanges(AtomicLong next, long range, long count, AtomicLong written,
+                              ProgressListener listener) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement full = conn.prepareStatement(insertSql(rowsPerStatement))) {
+
+            conn.setAutoCommit(false);
+            try {
+                long from;
+                while (!cancelled && (from = next.getAndAdd(range)) < count) {
+                    long to = Math.min(from + range, count);
+                    for (long start = from; start < to; start += rowsPerStatement) {
+                        int rows = (int) Math.min(rowsPerStatement, to - start);
+                        if (rows == rowsPerStatement) {
+                            bind(full, start, rows);
+                            full.executeUpdate();
+                        } else {
+                            try (PreparedStatement tail = conn.prepareStatement(insertSql(rows))) {
+                                bind(tail, start, rows);
+                                tail.executeUpdate();
+                            }
+                        }
+                    }
+                    conn.commit();
+                    long total = written.addAndGet(to - from);
+                    if (listener != null) listener.onProgress(total, count);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void bind(PreparedStatement ps, long start, int rows) throws SQLException {
+        int p = 1;
+        for (int i = 0; i < rows; i++) {
+            Contact c = contact(start + i);
+            ps.setString(p++, c.getName());
+            ps.setString(p++, c.getPhone());
+            ps.setString(p++, c.getEmail());
+            ps.setString(p++, c.getAddress());
+            ps.setString(p++, c.getNotes());
+            ps.setTimestamp(p++, Timestamp.valueOf(c.getCreatedAt()));
+            ps.setTimestamp(p++, Timestamp.valueOf(c.getUpdatedAt()));
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(COLUMNS.length() + rows * 16).append(COLUMNS);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(" : ",(");
+            for (int c = 0; c < PARAMS_PER_ROW; c++) {
+                sql.append(c == 0 ? "?" : ",?");
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Summary of a finished load.
+     */
+    public static final class LoadResult {
+        private final long rows;
+        private final long loadMillis;
+        private final long indexMillis;
+
+        LoadResult(long rows, long loadMillis, long indexMillis) {
+            this.rows = rows;
+            this.loadMillis = loadMillis;
+            this.indexMillis = indexMillis;
+        }
+
+        public long getRows() { return rows; }
+        public long getLoadMillis() { return loadMillis; }
+        public long getIndexMillis() { return indexMillis; }
+
+        // Insert rate, not counting the index rebuild
+        public double getRowsPerSecond() {
+            return loadMillis == 0 ? rows : rows * 1000.0 / loadMillis;
+        }
+
+        @Override
+        public String toString() {
+            long total = loadMillis + indexMillis;
+            return String.format("Loaded %d contacts in %.1f s (%.0f rows/s), indexes rebuilt in %.1f s, " +
+                                 "%.0f rows/s overall",
+                                 rows, loadMillis / 1000.0, getRowsPerSecond(), indexMillis / 1000.0,
+                                 total == 0 ? rows : rows * 1000.0 / total);
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package addressbook;
+
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Contact Importer Class
+ * Bulk-loads contacts from CSV files in the format written by
+ * ContactExporter (optionally gzip-compressed). The file is read on the
+ * calling thread, records are validated in parallel in chunks, and a
+ * single writer inserts them with JDBC batches in chunked transactions.
+ * Invalid and conflicting rows are written to a rejected-rows file.
+ */
+public class ContactImporter {
+
+    /**
+     * What to do with a row whose email already exists.
+     */
+    public enum ConflictMode {
+        SKIP,    // Keep the existing contact and count the row as skipped
+        UPSERT,  // Overwrite the existing contact with the imported values
+        REPORT   // Keep the existing contact and write the row to the rejected file
+    }
+
+    /**
+     * Receives progress while an import runs.
+     */
+    public interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes, long rowsRead);
+    }
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO contacts (name, phone, email, address, notes, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP))";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO contacts (name, phone, email, address, notes, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP)) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), phone = VALUES(phone), " +
+            "address = VALUES(address), notes = VALUES(notes)";
+
+    private final DatabaseManager dbManager;
+    private ConflictMode conflictMode = ConflictMode.SKIP;
+    private int batchSize = 1000;
+    private int commitInterval = 20000;
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+    private volatile boolean cancelled;
+
+    public ContactImporter(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    public void setConflictMode(ConflictMode conflictMode) { this.conflictMode = conflictMode; }
+    public void setBatchSize(int batchSize) { this.batchSize = Math.max(1, batchSize); }
+    public void setCommitInterval(int commitInterval) { this.commitInterval = Math.max(1, commitInterval); }
+    public void setParserThreads(int parserThreads) { this.parserThreads = Math.max(1, parserThreads); }
+
+    // Stop after the chunk being written; the open transaction is rolled back
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Imports the file and returns a summary. Rejected rows are written to
+     * "<file>.rejected.csv" next to the input. Throws CancellationException
+     * if cancel() was called.
+     */
+    public ImportResult importFile(Path file, ProgressListener listener) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long totalBytes = Files.size(file);
+        Path rejectedFile = file.resolveSibling(file.getFileName() + ".rejected.csv");
+        ImportResult result = new ImportResult(rejectedFile);
+        Files.deleteIfExists(rejectedFile);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, r -> {
+            Thread t = new Thread(r, "addressbook-import-parse-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        ExecutorService writerThread = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "addressbook-import-write");
+            t.setDaemon(true);
+            return t;
+        });
+
+        CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+        InputStream in = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")
+                ? new GZIPInputStream(counter, 1 << 16) : counter;
+
+        try (CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String[] header = csv.next();
+            if (header == null) {
+                return result.finish(start);
+            }
+            Columns columns = new Columns(header);
+
+            // Chunks are written in file order; the bounded queue applies backpressure
+            BlockingQueue<Future<Chunk>> queue = new ArrayBlockingQueue<>(parserThreads * 2);
+            ChunkWriter writer = new ChunkWriter(result, header);
+            Future<?> writing = writerThread.submit(() -> {
+                writer.run(queue);
+                return null;
+            });
+
+            try {
+                while (!cancelled && !writing.isDone()) {
+                    List<RawRow> rows = new ArrayList<>(batchSize);
+                    String[] record;
+                    while (rows.size() < batchSize && (record = csv.next()) != null) {
+                        rows.add(new RawRow(csv.getRecordLine(), record));
+                    }
+                    if (rows.isEmpty()) break;
+
+                    result.rowsRead += rows.size();
+                    enqueue(queue, parsers.submit(() -> validate(rows, columns)), writing);
+                    if (listener != null) {
+                        listener.onProgress(counter.count, totalBytes, result.rowsRead);
+                    }
+                }
+                enqueue(queue, parsers.submit(() -> Chunk.END), writing);
+                writing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+                throw new CancellationException("Import interrupted");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) throw (SQLException) cause;
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IOException(cause);
+            }
+        } finally {
+            parsers.shutdownNow();
+            writerThread.shutdownNow();
+            in.close();
+        }
+
+        if (cancelled) {
+            throw new CancellationException("Import cancelled");
+        }
+        dbManager.invalidateCaches();
+        if (listener != null) {
+            listener.onProgress(totalBytes, totalBytes, result.rowsRead);
+        }
+        return result.finish(start);
+    }
+
+    // Hand a chunk to the writer, giving up if the writer has already stopped
+    private static void enqueue(BlockingQueue<Future<Chunk>> queue, Future<Chunk> chunk, Future<?> writing)
+            throws InterruptedException {
+        while (!writing.isDone()) {
+            if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    // Parallel stage: map columns, apply the ContactValidator rules
+    private Chunk validate(List<RawRow> rows, Columns columns) {
+        Chunk chunk = new Chunk();
+        for (RawRow raw : rows) {
+            String name = columns.get(raw.fields, columns.name);
+            String phone = columns.get(raw.fields, columns.phone);
+            String email = columns.get(raw.fields, columns.email);
+            String address = columns.get(raw.fields, columns.address);
+            String notes = columns.get(raw.fields, columns.notes);
+
+            int violations = ContactValidator.validate(name, phone, email, address);
+            if (violations != 0) {
+                chunk.rejects.add(new Reject(raw, ContactValidator.describe(violations)));
+            } else {
+                chunk.rows.add(new ValidRow(raw, name, phone, email, address, notes,
+                                            parseTimestamp(columns.get(raw.fields, columns.created))));
+            }
+        }
+        return chunk;
+    }
+
+    private static Timestamp parseTimestamp(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(value, Contact.TIMESTAMP_FORMAT));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Single writer: owns the connection and the rejected-rows file.
+     */
+    private final class ChunkWriter {
+        private final ImportResult result;
+        private final String[] header;
+        private Writer rejects;
+
+        ChunkWriter(ImportResult result, String[] header) {
+            this.result = result;
+            this.header = header;
+        }
+
+        void run(BlockingQueue<Future<Chunk>> queue) throws Exception {
+            String sql = conflictMode == ConflictMode.UPSERT ? UPSERT_SQL : INSERT_SQL;
+
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                conn.setAutoCommit(false);
+                long uncommitted = 0;
+
+                try {
+                    while (true) {
+                        Chunk chunk = queue.take().get();
+                        if (chunk == Chunk.END || cancelled) break;
+
+                        for (Reject reject : chunk.rejects) {
+                            reject(reject.raw, reject.reason);
+                        }
+                        uncommitted += write(conn, ps, chunk);
+
+                        if (uncommitted >= commitInterval) {
+                            conn.commit();
+                            uncommitted = 0;
+                        }
+                    }
+
+                    if (cancelled) {
+                        conn.rollback();
+                    } else {
+                        conn.commit();
+                    }
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } finally {
+                if (rejects != null) rejects.close();
+            }
+        }
+
+        private int write(Connection conn, PreparedStatement ps, Chunk chunk) throws SQLException, IOException {
+            if (chunk.rows.isEmpty()) return 0;
+
+            // Earlier chunks of this import are visible here, since they share the transaction
+            Set<String> existing = existingEmails(conn, chunk.rows);
+            Set<String> seen = new HashSet<>();
+            int batched = 0;
+
+            for (ValidRow row : chunk.rows) {
+                String key = row.email.toLowerCase(Locale.ROOT);
+                boolean duplicate = existing.contains(key) || !seen.add(key);
+
+                if (duplicate) {
+                    if (conflictMode == ConflictMode.SKIP) {
+                        result.skipped++;
+                        continue;
+                    }
+                    if (conflictMode == ConflictMode.REPORT) {
+                        reject(row.raw, "Duplicate email");
+                        continue;
+                    }
+                    result.updated++;
+                } else {
+                    result.inserted++;
+                }
+
+                ps.setString(1, row.name);
+                ps.setString(2, row.phone);
+                ps.setString(3, row.email);
+                ps.setString(4, row.address);
+                ps.setString(5, row.notes);
+                ps.setTimestamp(6, row.createdAt);
+                ps.addBatch();
+                batched++;
+            }
+
+            if (batched > 0) {
+                ps.executeBatch();
+            }
+            return batched;
+        }
+
+        private Set<String> existingEmails(Connection conn, List<ValidRow> rows) throws SQLException {
+            StringBuilder sql = new StringBuilder("SELECT email FROM contacts WHERE email IN (");
+            for (int i = 0; i < rows.size(); i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(')');
+
+            Set<String> existing = new HashSet<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < rows.size(); i++) {
+                    ps.setString(i + 1, rows.get(i).email);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return existing;
+        }
+
+        private void reject(RawRow raw, String reason) throws IOException {
+            if (rejects == null) {
+                rejects = new BufferedWriter(new OutputStreamWriter(
+                        Files.newOutputStream(result.rejectedFile), StandardCharsets.UTF_8), BUFFER_SIZE);
+                writeCsvRow(new String[] { "Line", "Reason" }, header);
+            }
+            writeCsvRow(new String[] { String.valueOf(raw.line), reason }, raw.fields);
+            result.rejected++;
+        }
+
+        private void writeCsvRow(String[] prefix, String[] fields) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            for (String value : prefix) {
+                appendField(sb, value);
+            }
+            for (String value : fields) {
+                appendField(sb, value);
+            }
+            sb.setLength(sb.length() - 1);
+            sb.append("\r\n");
+            rejects.write(sb.toString());
+        }
+
+        private void appendField(StringBuilder sb, String value) {
+            sb.append('"').append(value.replace("\"", "\"\"")).append('"').append(',');
+        }
+    }
+
+    /**
+     * Column positions resolved from the header row by name.
+     */
+    private static final class Columns {
+        final int name, phone, email, address, notes, created;
+
+        Columns(String[] header) throws IOException {
+            name = indexOf(header, "name");
+            phone = indexOf(header, "phone");
+            email = indexOf(header, "email");
+            address = indexOf(header, "address");
+            notes = indexOf(header, "notes");
+            created = indexOf(header, "created");
+            if (name < 0 || phone < 0 || email < 0) {
+                throw new IOException("CSV header must contain Name, Phone and Email columns");
+            }
+        }
+
+        String get(String[] fields, int index) {
+            return index >= 0 && index < fields.length ? fields[index].trim() : "";
+        }
+
+        private static int indexOf(String[] header, String column) {
+            for (int i = 0; i < header.length; i++) {
+                if (header[i].trim().equalsIgnoreCase(column)) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static final class RawRow {
+        final long line;
+        final String[] fields;
+
+        RawRow(long line, String[] fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    private static final class ValidRow {
+        final RawRow raw;
+        final String name, phone, email, address, notes;
+        final Timestamp createdAt;
+
+        ValidRow(RawRow raw, String name, String phone, String email, String address,
+                 String notes, Timestamp createdAt) {
+            this.raw = raw;
+            this.name = name;
+            this.phone = phone;
+            this.email = email;
+            this.address = address;
+            this.notes = notes;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Reject {
+        final RawRow raw;
+        final String reason;
+
+        Reject(RawRow raw, String reason) {
+            this.raw = raw;
+            this.reason = reason;
+        }
+    }
+
+    private static final class Chunk {
+        static final Chunk END = new Chunk();
+        final List<ValidRow> rows = new ArrayList<>();
+        final List<Reject> rejects = new ArrayList<>();
+    }
+
+    /**
+     * Counts compressed bytes read, for progress reporting.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    /**
+     * Summary of a finished import.
+     */
+    public static final class ImportResult {
+        private final Path rejectedFile;
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long skipped;
+        private long rejected;
+        private long elapsedMillis;
+
+        ImportResult(Path rejectedFile) {
+            this.rejectedFile = rejectedFile;
+        }
+
+        ImportResult finish(long startNanos) {
+            elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            return this;
+        }
+
+        public long getRowsRead() { return rowsRead; }
+        public long getInserted() { return inserted; }
+        public long getUpdated() { return updated; }
+        public long getSkipped() { return skipped; }
+        public long getRejected() { return rejected; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        // Rejected-rows file, or null when every row was accepted
+        public Path getRejectedFile() { return rejected > 0 ? rejectedFile : null; }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Imported %d rows in %.1f s (%.0f rows/s): %d inserted, %d updated, %d skipped, %d rejected",
+                                 rowsRead, elapsedMillis / 1000.0, getRowsPerSecond(),
+                                 inserted, updated, skipped, rejected);
+        }
+    }
+}
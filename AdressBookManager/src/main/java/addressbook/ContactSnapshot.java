@@ -0,0 +1,281 @@
+package addressbook;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.zip.CRC32;
+
+/**
+ * Contact Snapshot Class
+ * Local copy of the contact list that the GUI shows at startup before the
+ * database has answered. The file holds a CompactContactStore column by
+ * column (ids, timestamps, null flags, field lengths, then all text as
+ * UTF-8) behind a small header, and is read back with a few large
+ * FileChannel reads into heap buffers. Nothing stays mapped, so write()
+ * can always replace the file, also on Windows.
+ *
+ * The header records the change feed watermark the rows are current to,
+ * so the caller can catch up with getContactsChangedSince, and which
+ * database the rows came from, so a snapshot of another database is
+ * ignored. A file that is truncated, corrupt or of another version is
+ * ignored as well; it is only a cache.
+ */
+public class ContactSnapshot {
+
+    private static final int MAGIC = 0x41425348; // "ABSH"
+    private static final int VERSION = 1;
+
+    // magic, version, crc, source, watermark, saved at, rows, text bytes, sort column, ascending
+    private static final int HEADER = 4 + 4 + 8 + 8 + 8 + 8 + 4 + 4 + 4 + 4;
+    // id, created, updated, null flags and five field lengths
+    private static final int ROW_BYTES = 4 + 8 + 8 + 1 + 5 * 4;
+    private static final int FIELDS = 5;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final long source;
+
+    /**
+     * source names the database the rows belong to, for example its URL
+     * and user; a snapshot written for another source is not read back.
+     */
+    public ContactSnapshot(Path file, String source) {
+        this.file = file;
+        this.source = hash(source);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the snapshot, or returns null when there is none or it cannot
+     * be used.
+     */
+    public synchronized Contents read() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER || length > Integer.MAX_VALUE) {
+                return ignore("unexpected size " + length);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            readFully(channel, header);
+
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return ignore("unknown format");
+            }
+            if (header.getLong(16) != source) {
+                return ignore("written for another database");
+            }
+            int rows = header.getInt(40);
+            int textBytes = header.getInt(44);
+            if (rows < 0 || textBytes < 0 || HEADER + (long) rows * ROW_BYTES + textBytes != length) {
+                return ignore("truncated");
+            }
+            // The text is read straight into the store's array; only the fixed-size columns are copied
+            ByteBuffer columns = ByteBuffer.allocate(rows * ROW_BYTES);
+            readFully(channel, columns);
+            byte[] text = new byte[textBytes];
+            readFully(channel, ByteBuffer.wrap(text));
+            CRC32 crc = new CRC32();
+            crc.update(columns.array());
+            crc.update(text);
+            if (crc.getValue() != header.getLong(8)) {
+                return ignore("checksum mismatch");
+            }
+
+            int position = 0;
+            int[] ids = new int[rows];
+            columns.slice(position, rows * 4).asIntBuffer().get(ids);
+            position += rows * 4;
+            long[] created = new long[rows];
+            columns.slice(position, rows * 8).asLongBuffer().get(created);
+            position += rows * 8;
+            long[] updated = new long[rows];
+            columns.slice(position, rows * 8).asLongBuffer().get(updated);
+            position += rows * 8;
+            byte[] nulls = new byte[rows];
+            columns.get(position, nulls);
+            position += rows;
+            int[] lengths = new int[rows * FIELDS];
+            columns.slice(position, rows * FIELDS * 4).asIntBuffer().get(lengths);
+
+            CompactContactStore store = CompactContactStore.fromColumns(rows, ids, created, updated,
+                                                                        nulls, lengths, text);
+            return new Contents(store, new Timestamp(header.getLong(24)), header.getLong(32),
+                                header.getInt(48), header.getInt(52) != 0);
+
+        } catch (IOException | RuntimeException e) {
+            return ignore(e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the rows, current to the watermark. The
+     * file is written beside the old one and moved over it, so a crash
+     * mid-write leaves the previous snapshot intact.
+     */
+    public synchronized void write(CompactContactStore rows, Timestamp watermark,
+                                   int sortColumn, boolean sortAscending) throws IOException {
+        int size = rows.size();
+        long textBytes = 0;
+        for (int row = 0; row < size; row++) {
+            for (int f = 0; f < FIELDS; f++) {
+                textBytes += rows.getTextLength(row, f);
+            }
+        }
+        if (textBytes > Integer.MAX_VALUE - HEADER - (long) size * ROW_BYTES) {
+            throw new IOException("Contact list is too large for a snapshot");
+        }
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            CRC32 crc = new CRC32();
+            channel.position(HEADER);
+
+            for (int row = 0; row < size; row++) {
+                flushIfFull(channel, buffer, crc, 4);
+                buffer.putInt(rows.getId(row));
+            }
+            for (int row = 0; row < size; row++) {
+                flushIfFull(channel, buffer, crc, 8);
+                buffer.putLong(rows.getCreatedMillis(row));
+            }
+            for (int row = 0; row < size; row++) {
+                flushIfFull(channel, buffer, crc, 8);
+                buffer.putLong(rows.getUpdatedMillis(row));
+            }
+            for (int row = 0; row < size; row++) {
+                flushIfFull(channel, buffer, crc, 1);
+                buffer.put(rows.getNullFields(row));
+            }
+            for (int row = 0; row < size; row++) {
+                flushIfFull(channel, buffer, crc, FIELDS * 4);
+                for (int f = 0; f < FIELDS; f++) {
+                    buffer.putInt(rows.getTextLength(row, f));
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                for (int f = 0; f < FIELDS; f++) {
+                    int length = rows.getTextLength(row, f);
+                    if (length > buffer.remaining()) {
+                        flush(channel, buffer, crc);
+                    }
+                    if (length > buffer.capacity()) {
+                        ByteBuffer large = ByteBuffer.allocate(length);
+                        rows.getTextBytes(row, f, large);
+                        flush(channel, large, crc);
+                    } else {
+                        rows.getTextBytes(row, f, buffer);
+                    }
+                }
+            }
+            flush(channel, buffer, crc);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).putLong(crc.getValue()).putLong(source)
+                  .putLong(watermark.getTime()).putLong(System.currentTimeMillis())
+                  .putInt(size).putInt((int) textBytes).putInt(sortColumn).putInt(sortAscending ? 1 : 0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(false);
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public synchronized void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // Fills the buffer from the channel's position, failing if the file ends first
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+    }
+
+    private static void flushIfFull(FileChannel channel, ByteBuffer buffer, CRC32 crc, int needed)
+            throws IOException {
+        if (buffer.remaining() < needed) {
+            flush(channel, buffer, crc);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private Contents ignore(String reason) {
+        System.err.println("Ignoring contact snapshot " + file + ": " + reason);
+        return null;
+    }
+
+    // 64-bit FNV-1a of the UTF-8 bytes
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * A snapshot read back from disk.
+     */
+    public static final class Contents {
+        private final CompactContactStore contacts;
+        private final Timestamp watermark;
+        private final long savedAtMillis;
+        private final int sortColumn;
+        private final boolean sortAscending;
+
+        Contents(CompactContactStore contacts, Timestamp watermark, long savedAtMillis,
+                 int sortColumn, boolean sortAscending) {
+            this.contacts = contacts;
+            this.watermark = watermark;
+            this.savedAtMillis = savedAtMillis;
+            this.sortColumn = sortColumn;
+            this.sortAscending = sortAscending;
+        }
+
+        public CompactContactStore getContacts() { return contacts; }
+        // Pass to getContactsChangedSince to catch up with the database
+        public Timestamp getWatermark() { return watermark; }
+        public long getSavedAtMillis() { return savedAtMillis; }
+        // Column the rows were sorted by in the table, or -1 for the default order
+        public int getSortColumn() { return sortColumn; }
+        public boolean isSortAscending() { return sortAscending; }
+    }
+}
@@ -0,0 +1,144 @@
+package addressbook;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Contact Sort Class
+ * A sort order over one of the eight table columns (the ContactSorter
+ * column numbers), with id as the tiebreaker. Translates the order into
+ * SQL so the database can sort, and into keyset conditions so deep pages
+ * of a sorted list stay index range scans.
+ */
+public final class ContactSort {
+
+    private static final String[] COLUMNS = {
+        "id", "name", "phone", "email", "address", "notes", "created_at", "updated_at"
+    };
+
+    // The order every list had before sorting could be chosen
+    public static final ContactSort DEFAULT = new ContactSort(ContactSorter.NAME, true);
+
+    private final int column;
+    private final boolean ascending;
+
+    public ContactSort(int column, boolean ascending) {
+        if (column < 0 || column >= COLUMNS.length) {
+            throw new IllegalArgumentException("No such column: " + column);
+        }
+        this.column = column;
+        this.ascending = ascending;
+    }
+
+    public int getColumn() { return column; }
+    public boolean isAscending() { return ascending; }
+
+    // ORDER BY clause body, e.g. "phone DESC, id DESC"
+    public String orderBy() {
+        String direction = ascending ? "" : " DESC";
+        if (column == ContactSorter.ID) {
+            return "id" + direction;
+        }
+        return COLUMNS[column] + direction + ", id" + direction;
+    }
+
+    /*
+     * Address and notes are nullable TEXT columns without an index, so
+     * they cannot be paged by key; they fall back to OFFSET paging.
+     */
+    public boolean supportsKeyset() {
+        return column != ContactSorter.ADDRESS && column != ContactSorter.NOTES;
+    }
+
+    /**
+     * Condition selecting the rows that sort after a previous row. Bind its
+     * parameters with bindAfter.
+     */
+    public String afterCondition() {
+        String op = ascending ? ">" : "<";
+        if (column == ContactSorter.ID) {
+            return "id " + op + " ?";
+        }
+        String c = COLUMNS[column];
+        return "(" + c + " " + op + " ? OR (" + c + " = ? AND id " + op + " ?))";
+    }
+
+    // Bind the previous row's key for afterCondition, starting at index; returns the next index
+    public int bindAfter(PreparedStatement ps, int index, Contact previous) throws SQLException {
+        for (Object value : afterValues(previous)) {
+            ps.setObject(index++, value);
+        }
+        return index;
+    }
+
+    // The values afterCondition binds, in placeholder order
+    public Object[] afterValues(Contact previous) {
+        if (column == ContactSorter.ID) {
+            return new Object[] { previous.getId() };
+        }
+        Object key;
+        switch (column) {
+            case ContactSorter.CREATED: key = toTimestamp(previous.getCreatedAt()); break;
+            case ContactSorter.UPDATED: key = toTimestamp(previous.getUpdatedAt()); break;
+            case ContactSorter.PHONE: key = previous.getPhone(); break;
+            case ContactSorter.EMAIL: key = previous.getEmail(); break;
+            default: key = previous.getName(); break;
+        }
+        return new Object[] { key, key, previous.getId() };
+    }
+
+    // Select list of just the sort key and id, which the (column, id) index covers
+    public String keyColumns() {
+        return column == ContactSorter.ID ? "id" : COLUMNS[column] + ", id";
+    }
+
+    // A contact holding only the id and sort key of a row selected with keyColumns, enough for afterValues
+    public Contact readKey(ResultSet rs) throws SQLException {
+        String name = null, phone = null, email = null;
+        LocalDateTime created = null, updated = null;
+        switch (column) {
+            case ContactSorter.ID: break;
+            case ContactSorter.CREATED: created = toDateTime(rs.getTimestamp(1)); break;
+            case ContactSorter.UPDATED: updated = toDateTime(rs.getTimestamp(1)); break;
+            case ContactSorter.PHONE: phone = rs.getString(1); break;
+            case ContactSorter.EMAIL: email = rs.getString(1); break;
+            case ContactSorter.NAME: name = rs.getString(1); break;
+            default: throw new IllegalStateException("No keyset order on " + COLUMNS[column]);
+        }
+        return new Contact(rs.getInt("id"), name, phone, email, null, null, created, updated);
+    }
+
+    // Client-side equivalent, for placing single rows and sorting small results
+    public Comparator<Contact> comparator() {
+        return ContactSorter.comparator(column, ascending);
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+
+    private static LocalDateTime toDateTime(Timestamp time) {
+        return time == null ? null : time.toLocalDateTime();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ContactSort)) return false;
+        ContactSort other = (ContactSort) obj;
+        return column == other.column && ascending == other.ascending;
+    }
+
+    @Override
+    public int hashCode() {
+        return column * 2 + (ascending ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return orderBy();
+    }
+}
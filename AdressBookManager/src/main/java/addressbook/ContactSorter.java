@@ -0,0 +1,212 @@
+package addressbook;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Contact Sorter Class
+ * Sorting and substring filtering for in-memory contact lists, by table
+ * column. A sort derives one collation key per row up front (case-folded
+ * text, or a number for the id and timestamp columns) and then compares
+ * keys only. Large lists are keyed, sorted and filtered in parallel on the
+ * common fork-join pool. Both operations return row indexes, so callers
+ * decide how to apply them.
+ */
+public final class ContactSorter {
+
+    public static final int ID = 0;
+    public static final int NAME = 1;
+    public static final int PHONE = 2;
+    public static final int EMAIL = 3;
+    public static final int ADDRESS = 4;
+    public static final int NOTES = 5;
+    public static final int CREATED = 6;
+    public static final int UPDATED = 7;
+
+    // Below this many rows the fork-join overhead outweighs the gain
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger("addressbook.sort.parallelThreshold", 8192);
+
+    private ContactSorter() {
+    }
+
+    /**
+     * Row indexes of the list in the order of the column, ties broken by
+     * id. Text compares like compareToIgnoreCase, with nulls first.
+     */
+    public static int[] sortedOrder(List<Contact> rows, int column, boolean ascending) {
+        int n = rows.size();
+        Key[] keys = new Key[n];
+        CompactContactStore store = rows instanceof CompactContactStore ? (CompactContactStore) rows : null;
+        range(n).forEach(i -> keys[i] = store != null ? key(store, i, column) : key(rows.get(i), i, column));
+
+        Comparator<Key> order = ascending ? Key::compareTo : (a, b) -> b.compareTo(a);
+        if (n >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(keys, order);
+        } else {
+            Arrays.sort(keys, order);
+        }
+
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = keys[i].row;
+        }
+        return result;
+    }
+
+    // The order sortedOrder produces, as a comparator for placing single rows
+    public static Comparator<Contact> comparator(int column, boolean ascending) {
+        Comparator<Contact> order = (c1, c2) -> {
+            int result;
+            switch (column) {
+                case NAME: result = compareText(c1.getName(), c2.getName()); break;
+                case PHONE: result = compareText(c1.getPhone(), c2.getPhone()); break;
+                case EMAIL: result = compareText(c1.getEmail(), c2.getEmail()); break;
+                case ADDRESS: result = compareText(c1.getAddress(), c2.getAddress()); break;
+                case NOTES: result = compareText(c1.getNotes(), c2.getNotes()); break;
+                case CREATED: result = compareTime(c1.getCreatedAt(), c2.getCreatedAt()); break;
+                case UPDATED: result = compareTime(c1.getUpdatedAt(), c2.getUpdatedAt()); break;
+                default: result = 0;
+            }
+            return result != 0 ? result : Integer.compare(c1.getId(), c2.getId());
+        };
+        return ascending ? order : order.reversed();
+    }
+
+    /**
+     * Indexes, in list order, of the rows where name, phone, email or
+     * address (and notes, if asked) contains the term, ignoring case.
+     */
+    public static int[] filter(List<Contact> rows, String term, boolean includeNotes) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        CompactContactStore store = rows instanceof CompactContactStore ? (CompactContactStore) rows : null;
+        int lastField = includeNotes ? NOTES : ADDRESS;
+        return range(rows.size()).filter(i -> {
+            for (int column = NAME; column <= lastField; column++) {
+                String value = store != null ? store.getText(i, column - 1) : text(rows.get(i), column);
+                if (containsIgnoreCase(value, needle)) return true;
+            }
+            return false;
+        }).toArray();
+    }
+
+    // Substring test without lowercasing the haystack; the needle must already be lower case
+    static boolean containsIgnoreCase(String haystack, String lowerNeedle) {
+        if (haystack == null) return false;
+        int max = haystack.length() - lowerNeedle.length();
+        for (int i = 0; i <= max; i++) {
+            if (haystack.regionMatches(true, i, lowerNeedle, 0, lowerNeedle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static IntStream range(int n) {
+        IntStream range = IntStream.range(0, n);
+        return n >= PARALLEL_THRESHOLD ? range.parallel() : range;
+    }
+
+    private static Key key(Contact c, int row, int column) {
+        switch (column) {
+            case ID: return new Key(row, c.getId(), null, c.getId());
+            case CREATED: return new Key(row, c.getId(), null, toNanos(c.getCreatedAt()));
+            case UPDATED: return new Key(row, c.getId(), null, toNanos(c.getUpdatedAt()));
+            default: return new Key(row, c.getId(), fold(text(c, column)), 0);
+        }
+    }
+
+    // Same as key(Contact, ...), read from the store's columns
+    private static Key key(CompactContactStore store, int row, int column) {
+        int id = store.getId(row);
+        switch (column) {
+            case ID: return new Key(row, id, null, id);
+            case CREATED: return new Key(row, id, null, toNanos(store.getCreatedMillis(row)));
+            case UPDATED: return new Key(row, id, null, toNanos(store.getUpdatedMillis(row)));
+            default: return new Key(row, id, fold(store.getText(row, column - 1)), 0);
+        }
+    }
+
+    // Nanosecond time keys; null sorts first
+    private static long toNanos(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE
+                            : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static long toNanos(long millis) {
+        return millis == Long.MIN_VALUE ? Long.MIN_VALUE : millis * 1_000_000L;
+    }
+
+    private static String text(Contact c, int column) {
+        switch (column) {
+            case NAME: return c.getName();
+            case PHONE: return c.getPhone();
+            case EMAIL: return c.getEmail();
+            case ADDRESS: return c.getAddress();
+            case NOTES: return c.getNotes();
+            default: return null;
+        }
+    }
+
+    /*
+     * Folds every character the way compareToIgnoreCase compares them, so
+     * that ordinary compareTo on folded keys gives the same order.
+     */
+    private static String fold(String s) {
+        if (s == null) return null;
+        char[] chars = null;
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            char folded = Character.toLowerCase(Character.toUpperCase(ch));
+            if (folded != ch) {
+                if (chars == null) chars = s.toCharArray();
+                chars[i] = folded;
+            }
+        }
+        return chars == null ? s : new String(chars);
+    }
+
+    private static int compareText(String a, String b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareToIgnoreCase(b);
+    }
+
+    private static int compareTime(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+
+    /**
+     * Collation key of one row: folded text, or a number for id and time columns.
+     */
+    private static final class Key implements Comparable<Key> {
+        final int row;
+        final int id;
+        final String text;
+        final long number;
+
+        Key(int row, int id, String text, long number) {
+            this.row = row;
+            this.id = id;
+            this.text = text;
+            this.number = number;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result;
+            if (text != null || other.text != null) {
+                result = text == null ? -1 : other.text == null ? 1 : text.compareTo(other.text);
+            } else {
+                result = Long.compare(number, other.number);
+            }
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+    }
+}
@@ -1,186 +1,601 @@
-package addressbook;
-
-import javax.swing.table.AbstractTableModel;
-import java.util.List;
-import java.util.ArrayList;
-
-/**
- * Custom Table Model for Contact JTable
- * Provides data binding between Contact objects and JTable
- */
-public class ContactTableModel extends AbstractTableModel {
-    private final String[] columnNames = {
-        "ID", "Name", "Phone", "Email", "Address", "Notes", "Created", "Updated"
-    };
-    private List<Contact> contacts;
-    
-    public ContactTableModel() {
-        this.contacts = new ArrayList<>();
-    }
-    
-    public ContactTableModel(List<Contact> contacts) {
-        this.contacts = contacts != null ? contacts : new ArrayList<>();
-    }
-    
-    @Override
-    public int getRowCount() {
-        return contacts.size();
-    }
-    
-    @Override
-    public int getColumnCount() {
-        return columnNames.length;
-    }
-    
-    @Override
-    public String getColumnName(int column) {
-        return columnNames[column];
-    }
-    
-    @Override
-    public Class<?> getColumnClass(int columnIndex) {
-        switch (columnIndex) {
-            case 0: return Integer.class;
-            default: return String.class;
-        }
-    }
-    
-    @Override
-    public boolean isCellEditable(int rowIndex, int columnIndex) {
-        return false; // Make table read-only
-    }
-    
-    @Override
-    public Object getValueAt(int rowIndex, int columnIndex) {
-        if (rowIndex < 0 || rowIndex >= contacts.size()) {
-            return null;
-        }
-        
-        Contact contact = contacts.get(rowIndex);
-        switch (columnIndex) {
-            case 0: return contact.getId();
-            case 1: return contact.getName();
-            case 2: return contact.getPhone();
-            case 3: return contact.getEmail();
-            case 4: return truncateText(contact.getAddress(), 30);
-            case 5: return truncateText(contact.getNotes(), 25);
-            case 6: return contact.getFormattedCreatedAt();
-            case 7: return contact.getFormattedUpdatedAt();
-            default: return null;
-        }
-    }
-    
-    // Utility method to truncate long text
-    private String truncateText(String text, int maxLength) {
-        if (text == null) return "";
-        if (text.length() <= maxLength) return text;
-        return text.substring(0, maxLength - 3) + "...";
-    }
-    
-    // Add contact to model
-    public void addContact(Contact contact) {
-        contacts.add(contact);
-        int row = contacts.size() - 1;
-        fireTableRowsInserted(row, row);
-    }
-    
-    // Remove contact from model
-    public void removeContact(int rowIndex) {
-        if (rowIndex >= 0 && rowIndex < contacts.size()) {
-            contacts.remove(rowIndex);
-            fireTableRowsDeleted(rowIndex, rowIndex);
-        }
-    }
-    
-    // Update contact in model
-    public void updateContact(int rowIndex, Contact contact) {
-        if (rowIndex >= 0 && rowIndex < contacts.size()) {
-            contacts.set(rowIndex, contact);
-            fireTableRowsUpdated(rowIndex, rowIndex);
-        }
-    }
-    
-    // Get contact at specific row
-    public Contact getContactAt(int rowIndex) {
-        if (rowIndex >= 0 && rowIndex < contacts.size()) {
-            return contacts.get(rowIndex);
-        }
-        return null;
-    }
-    
-    // Clear all contacts
-    public void clearContacts() {
-        int size = contacts.size();
-        if (size > 0) {
-            contacts.clear();
-            fireTableRowsDeleted(0, size - 1);
-        }
-    }
-    
-    // Set new contacts list
-    public void setContacts(List<Contact> newContacts) {
-        this.contacts = newContacts != null ? newContacts : new ArrayList<>();
-        fireTableDataChanged();
-    }
-    
-    // Get all contacts
-    public List<Contact> getAllContacts() {
-        return new ArrayList<>(contacts);
-    }
-    
-    // Get contact count
-    public int getContactCount() {
-        return contacts.size();
-    }
-    
-    // Find contact by ID
-    public int findContactById(int id) {
-        for (int i = 0; i < contacts.size(); i++) {
-            if (contacts.get(i).getId() == id) {
-                return i;
-            }
-        }
-        return -1;
-    }
-    
-    // Filter contacts by search term
-    public void filterContacts(String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return;
-        }
-        
-        List<Contact> filteredContacts = new ArrayList<>();
-        String lowerSearchTerm = searchTerm.toLowerCase();
-        
-        for (Contact contact : contacts) {
-            if (contact.getName().toLowerCase().contains(lowerSearchTerm) ||
-                contact.getPhone().toLowerCase().contains(lowerSearchTerm) ||
-                contact.getEmail().toLowerCase().contains(lowerSearchTerm) ||
-                contact.getAddress().toLowerCase().contains(lowerSearchTerm) ||
-                contact.getNotes().toLowerCase().contains(lowerSearchTerm)) {
-                filteredContacts.add(contact);
-            }
-        }
-        
-        setContacts(filteredContacts);
-    }
-    
-    // Sort contacts by column
-    public void sortByColumn(int column, boolean ascending) {
-        contacts.sort((c1, c2) -> {
-            int result = 0;
-            switch (column) {
-                case 0: result = Integer.compare(c1.getId(), c2.getId()); break;
-                case 1: result = c1.getName().compareToIgnoreCase(c2.getName()); break;
-                case 2: result = c1.getPhone().compareToIgnoreCase(c2.getPhone()); break;
-                case 3: result = c1.getEmail().compareToIgnoreCase(c2.getEmail()); break;
-                case 4: result = c1.getAddress().compareToIgnoreCase(c2.getAddress()); break;
-                case 5: result = c1.getNotes().compareToIgnoreCase(c2.getNotes()); break;
-                case 6: result = c1.getCreatedAt().compareTo(c2.getCreatedAt()); break;
-                case 7: result = c1.getUpdatedAt().compareTo(c2.getUpdatedAt()); break;
-            }
-            return ascending ? result : -result;
-        });
-        fireTableDataChanged();
-    }
-}
+package addressbook;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Custom Table Model for Contact JTable
+ * Provides data binding between Contact objects and JTable
+ */
+public class ContactTableModel extends AbstractTableModel {
+    private final String[] columnNames = {
+        "ID", "Name", "Phone", "Email", "Address", "Notes", "Created", "Updated"
+    };
+    private List<Contact> contacts;
+    
+    // Default row order, matching the database's ORDER BY name, id
+    private static final Comparator<Contact> NAME_ORDER = ContactSorter.comparator(ContactSorter.NAME, true);
+    
+    // Current row order, used to insert and move single rows without a full sort
+    private Comparator<Contact> rowOrder = NAME_ORDER;
+    // Column chosen with sortByColumn, or -1 for the default name order
+    private int sortColumn = -1;
+    private boolean sortAscending = true;
+    // id -> contact for the rows in list mode; unused when the rows live in a compact store
+    private final Map<Integer, Contact> byId = new HashMap<>();
+    // Set when the row list is a CompactContactStore
+    private CompactContactStore store;
+    
+    // Display values by contact id, built the first time a row is painted
+    private static final int RENDER_CACHE_SIZE = Integer.getInteger("addressbook.table.renderCacheSize", 4096);
+    private final RenderCache renderCache = new RenderCache(RENDER_CACHE_SIZE);
+    
+    /**
+     * Loads one page of contacts for the paged mode. previous is the last
+     * contact of the preceding page when it is known, or null.
+     */
+    public interface PageLoader {
+        CompletableFuture<List<Contact>> loadPage(int offset, Contact previous, int limit);
+    }
+    
+    // Paged (virtualized) mode; pageLoader is null in the normal list mode
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 20;
+    private PageLoader pageLoader;
+    private int pagedRowCount;
+    private int pageGeneration;
+    private int lastRequestedPage;
+    private Map<Integer, List<Contact>> pages = new LinkedHashMap<>();
+    private Map<Integer, Contact> pageEnds = new LinkedHashMap<>();
+    private Set<Integer> pendingPages = new HashSet<>();
+    
+    public ContactTableModel() {
+        this.contacts = new ArrayList<>();
+    }
+    
+    public ContactTableModel(List<Contact> contacts) {
+        this.contacts = contacts != null ? contacts : new ArrayList<>();
+        reindex();
+    }
+    
+    @Override
+    public int getRowCount() {
+        return isPaged() ? pagedRowCount : contacts.size();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        switch (columnIndex) {
+            case 0: return Integer.class;
+            default: return String.class;
+        }
+    }
+    
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false; // Make table read-only
+    }
+    
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= getRowCount() || columnIndex < 0 || columnIndex >= columnNames.length) {
+            return null;
+        }
+        
+        Object[] cells;
+        if (store != null) {
+            int id = store.getId(rowIndex);
+            cells = renderCache.get(id);
+            if (cells == null) {
+                cells = renderCache.put(id, renderStoreRow(rowIndex));
+            }
+        } else {
+            Contact contact = isPaged() ? pagedContact(rowIndex) : contacts.get(rowIndex);
+            if (contact == null) {
+                return columnIndex == 1 ? "Loading..." : null;
+            }
+            cells = renderCache.get(contact.getId());
+            if (cells == null) {
+                cells = renderCache.put(contact.getId(), renderRow(contact));
+            }
+        }
+        return cells[columnIndex];
+    }
+    
+    // Display values of every column of a row
+    private Object[] renderRow(Contact contact) {
+        return new Object[] {
+            contact.getId(),
+            contact.getName(),
+            contact.getPhone(),
+            contact.getEmail(),
+            truncateText(contact.getAddress(), 30),
+            truncateText(contact.getNotes(), 25),
+            contact.getFormattedCreatedAt(),
+            contact.getFormattedUpdatedAt()
+        };
+    }
+    
+    // Same as renderRow, read straight from the store's columns without building a Contact view
+    private Object[] renderStoreRow(int rowIndex) {
+        return new Object[] {
+            store.getId(rowIndex),
+            store.getText(rowIndex, CompactContactStore.NAME),
+            store.getText(rowIndex, CompactContactStore.PHONE),
+            store.getText(rowIndex, CompactContactStore.EMAIL),
+            truncateText(store.getText(rowIndex, CompactContactStore.ADDRESS), 30),
+            truncateText(store.getText(rowIndex, CompactContactStore.NOTES), 25),
+            Contact.formatTimestamp(CompactContactStore.toDateTime(store.getCreatedMillis(rowIndex))),
+            Contact.formatTimestamp(CompactContactStore.toDateTime(store.getUpdatedMillis(rowIndex)))
+        };
+    }
+    
+    // Render cache occupancy and hit counts
+    public RenderStats getRenderStats() {
+        return renderCache.stats();
+    }
+    
+    // Utility method to truncate long text
+    private String truncateText(String text, int maxLength) {
+        if (text == null) return "";
+        if (text.length() <= maxLength) return text;
+        return text.substring(0, maxLength - 3) + "...";
+    }
+    
+    // Add contact to model at its sorted position
+    public void addContact(Contact contact) {
+        if (isPaged()) return; // Rows are not held in memory
+        if (containsId(contact.getId())) {
+            updateContact(contact);
+            return;
+        }
+        int row = insertionPoint(contact);
+        contacts.add(row, contact);
+        if (store == null) byId.put(contact.getId(), contact);
+        renderCache.invalidate(contact.getId());
+        fireTableRowsInserted(row, row);
+    }
+    
+    // Remove contact from model
+    public void removeContact(int rowIndex) {
+        if (rowIndex >= 0 && rowIndex < contacts.size()) {
+            Contact removed = contacts.remove(rowIndex);
+            if (store == null) byId.remove(removed.getId());
+            renderCache.invalidate(removed.getId());
+            fireTableRowsDeleted(rowIndex, rowIndex);
+        }
+    }
+    
+    // Remove contact by ID
+    public void removeContactById(int id) {
+        removeContact(findContactById(id));
+    }
+    
+    // Update contact in model
+    public void updateContact(int rowIndex, Contact contact) {
+        if (rowIndex >= 0 && rowIndex < contacts.size()) {
+            int oldId = contacts.get(rowIndex).getId();
+            if (store == null) {
+                byId.remove(oldId);
+                byId.put(contact.getId(), contact);
+            }
+            renderCache.invalidate(oldId);
+            renderCache.invalidate(contact.getId());
+            contacts.set(rowIndex, contact);
+            fireTableRowsUpdated(rowIndex, rowIndex);
+        }
+    }
+    
+    // Replace the row with the same ID, moving it if its sort position changed
+    public void updateContact(Contact contact) {
+        int row = findContactById(contact.getId());
+        if (row < 0) {
+            addContact(contact);
+            return;
+        }
+        boolean inPlace = (row == 0 || rowOrder.compare(contacts.get(row - 1), contact) <= 0) &&
+                          (row == contacts.size() - 1 || rowOrder.compare(contact, contacts.get(row + 1)) <= 0);
+        if (inPlace) {
+            updateContact(row, contact);
+        } else {
+            removeContact(row);
+            addContact(contact);
+        }
+    }
+    
+    // Get contact at specific row
+    public Contact getContactAt(int rowIndex) {
+        if (isPaged()) {
+            return rowIndex >= 0 && rowIndex < pagedRowCount ? pagedContact(rowIndex) : null;
+        }
+        if (rowIndex >= 0 && rowIndex < contacts.size()) {
+            return contacts.get(rowIndex);
+        }
+        return null;
+    }
+    
+    // Clear all contacts
+    public void clearContacts() {
+        if (isPaged()) {
+            setContacts(null);
+            return;
+        }
+        int size = contacts.size();
+        if (size > 0) {
+            contacts.clear();
+            byId.clear();
+            renderCache.clear();
+            fireTableRowsDeleted(0, size - 1);
+        }
+    }
+    
+    /**
+     * Set new contacts list. The model takes ownership of the list; a
+     * CompactContactStore is used as is, with cells read from its columns.
+     */
+    public void setContacts(List<Contact> newContacts) {
+        resetPaging(null, 0);
+        this.contacts = newContacts != null ? newContacts : new ArrayList<>();
+        if (sortColumn >= 0) {
+            // Keep the user's chosen order across reloads
+            applyOrder(ContactSorter.sortedOrder(contacts, sortColumn, sortAscending));
+        } else {
+            rowOrder = NAME_ORDER;
+        }
+        reindex();
+        fireTableDataChanged();
+    }
+    
+    /**
+     * Switches to paged mode: the model reports totalRows rows but only
+     * holds the pages around the visible rows, loading them through the
+     * loader as the table asks for them. Single-row add, update and remove
+     * only apply to the normal list mode.
+     */
+    public void setPagedSource(PageLoader loader, int totalRows) {
+        setPagedSource(loader, totalRows, ContactSort.DEFAULT);
+    }
+    
+    // Paged mode where the loader returns pages in the given order
+    public void setPagedSource(PageLoader loader, int totalRows, ContactSort order) {
+        resetPaging(loader, totalRows);
+        this.contacts = new ArrayList<>();
+        store = null;
+        byId.clear();
+        rowOrder = order.comparator();
+        sortColumn = order.getColumn();
+        sortAscending = order.isAscending();
+        fireTableDataChanged();
+    }
+    
+    public boolean isPaged() {
+        return pageLoader != null;
+    }
+    
+    // Get all contacts (in paged mode, only the pages currently loaded)
+    public List<Contact> getAllContacts() {
+        if (isPaged()) {
+            List<Contact> loaded = new ArrayList<>();
+            for (List<Contact> page : pages.values()) {
+                loaded.addAll(page);
+            }
+            return loaded;
+        }
+        return new ArrayList<>(contacts);
+    }
+    
+    // Copy of the rows in list mode as a compact store, for saving off the event dispatch thread
+    public CompactContactStore copyRows() {
+        if (isPaged()) {
+            throw new IllegalStateException("Paged rows cannot be copied");
+        }
+        return store != null ? store.copy() : new CompactContactStore(contacts);
+    }
+    
+    // Get contact count
+    public int getContactCount() {
+        return getRowCount();
+    }
+    
+    private void resetPaging(PageLoader loader, int totalRows) {
+        renderCache.clear();
+        pageGeneration++;
+        pageLoader = loader;
+        pagedRowCount = totalRows;
+        lastRequestedPage = 0;
+        pages.clear();
+        pageEnds.clear();
+        pendingPages.clear();
+    }
+    
+    // Contact for a row in paged mode, or null while its page loads
+    private Contact pagedContact(int rowIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        List<Contact> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = rowIndex % PAGE_SIZE;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+    
+    private void requestPage(int page) {
+        lastRequestedPage = page;
+        if (!pendingPages.add(page)) {
+            return;
+        }
+        int generation = pageGeneration;
+        Contact previous = page == 0 ? null : pageEnds.get(page - 1);
+        
+        pageLoader.loadPage(page * PAGE_SIZE, previous, PAGE_SIZE).whenCompleteAsync((rows, error) -> {
+            if (generation != pageGeneration) return; // Model was reset meanwhile
+            pendingPages.remove(page);
+            if (error != null || rows == null) {
+                return;
+            }
+            pages.put(page, rows);
+            // A reloaded page may hold contacts that changed since they were last painted
+            for (Contact c : rows) {
+                renderCache.invalidate(c.getId());
+            }
+            if (!rows.isEmpty()) {
+                pageEnds.put(page, rows.get(rows.size() - 1));
+            }
+            evictDistantPages();
+            
+            int first = page * PAGE_SIZE;
+            int last = Math.min(first + PAGE_SIZE, pagedRowCount) - 1;
+            if (first <= last) {
+                fireTableRowsUpdated(first, last);
+            }
+        }, AsyncDatabaseManager.EDT);
+    }
+    
+    // Drop the cached pages farthest from the most recently requested one
+    private void evictDistantPages() {
+        while (pages.size() > MAX_CACHED_PAGES) {
+            int farthest = -1;
+            for (int page : pages.keySet()) {
+                if (farthest < 0 || Math.abs(page - lastRequestedPage) > Math.abs(farthest - lastRequestedPage)) {
+                    farthest = page;
+                }
+            }
+            pages.remove(farthest);
+        }
+        // Keep page boundary keys near the cache so later keyset loads stay cheap
+        Iterator<Integer> it = pageEnds.keySet().iterator();
+        while (pageEnds.size() > MAX_CACHED_PAGES * 4 && it.hasNext()) {
+            int page = it.next();
+            if (!pages.containsKey(page)) {
+                it.remove();
+            }
+        }
+    }
+    
+    // Find contact by ID
+    public int findContactById(int id) {
+        if (isPaged()) {
+            for (Map.Entry<Integer, List<Contact>> entry : pages.entrySet()) {
+                List<Contact> rows = entry.getValue();
+                for (int i = 0; i < rows.size(); i++) {
+                    if (rows.get(i).getId() == id) {
+                        return entry.getKey() * PAGE_SIZE + i;
+                    }
+                }
+            }
+            return -1;
+        }
+        if (store != null) {
+            return store.indexOfId(id);
+        }
+        Contact contact = byId.get(id);
+        if (contact == null) {
+            return -1;
+        }
+        // Rows are kept in rowOrder, so a binary search finds the row directly
+        int row = Collections.binarySearch(contacts, contact, rowOrder);
+        if (row >= 0 && contacts.get(row).getId() == id) {
+            return row;
+        }
+        // The list came from elsewhere not quite in rowOrder; fall back to a scan
+        for (int i = 0; i < contacts.size(); i++) {
+            if (contacts.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    // First row that sorts after the contact
+    private int insertionPoint(Contact contact) {
+        int low = 0;
+        int high = contacts.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rowOrder.compare(contacts.get(mid), contact) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private boolean containsId(int id) {
+        return store != null ? store.indexOfId(id) >= 0 : byId.containsKey(id);
+    }
+    
+    private void reindex() {
+        byId.clear();
+        store = contacts instanceof CompactContactStore ? (CompactContactStore) contacts : null;
+        if (store != null) return;
+        for (Contact contact : contacts) {
+            byId.put(contact.getId(), contact);
+        }
+    }
+    
+    // Filter contacts by search term, keeping the current order
+    public void filterContacts(String searchTerm) {
+        if (isPaged() || searchTerm == null || searchTerm.trim().isEmpty()) {
+            return;
+        }
+        
+        int[] matches = ContactSorter.filter(contacts, searchTerm, true);
+        List<Contact> filteredContacts = new ArrayList<>(matches.length);
+        for (int row : matches) {
+            filteredContacts.add(contacts.get(row));
+        }
+        
+        resetPaging(null, 0);
+        contacts = filteredContacts;
+        reindex();
+        fireTableDataChanged();
+    }
+    
+    // Sort contacts by column; the order is kept when the rows are replaced
+    public void sortByColumn(int column, boolean ascending) {
+        if (isPaged()) return; // Rows are not held in memory
+        sortColumn = column;
+        sortAscending = ascending;
+        applyOrder(ContactSorter.sortedOrder(contacts, column, ascending));
+        fireTableDataChanged();
+    }
+    
+    // Current order as a ContactSort
+    public ContactSort getSort() {
+        return sortColumn < 0 ? ContactSort.DEFAULT : new ContactSort(sortColumn, sortAscending);
+    }
+    
+    // Column of the last sortByColumn, or -1 when rows are in name order
+    public int getSortColumn() {
+        return sortColumn;
+    }
+    
+    public boolean isSortAscending() {
+        return sortAscending;
+    }
+    
+    // Reorder the rows by a permutation from ContactSorter
+    private void applyOrder(int[] order) {
+        if (contacts instanceof CompactContactStore) {
+            ((CompactContactStore) contacts).permute(order);
+        } else {
+            List<Contact> sorted = new ArrayList<>(order.length);
+            for (int row : order) {
+                sorted.add(contacts.get(row));
+            }
+            contacts = sorted;
+        }
+        rowOrder = ContactSorter.comparator(sortColumn, sortAscending);
+    }
+    
+    /**
+     * Bounded LRU map from contact id to the row's display values. Only
+     * touched on the event dispatch thread, like the rest of the model.
+     */
+    private static final class RenderCache {
+        private final int capacity;
+        private final LinkedHashMap<Integer, Object[]> rows;
+        private long hits;
+        private long misses;
+        private long evictions;
+        
+        RenderCache(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.rows = new LinkedHashMap<Integer, Object[]>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+                    if (size() > RenderCache.this.capacity) {
+                        evictions++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+        
+        Object[] get(int id) {
+            Object[] cells = rows.get(id);
+            if (cells != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return cells;
+        }
+        
+        Object[] put(int id, Object[] cells) {
+            rows.put(id, cells);
+            return cells;
+        }
+        
+        void invalidate(int id) {
+            rows.remove(id);
+        }
+        
+        void clear() {
+            rows.clear();
+        }
+        
+        RenderStats stats() {
+            return new RenderStats(rows.size(), capacity, hits, misses, evictions);
+        }
+    }
+    
+    /**
+     * Snapshot of the render cache counters.
+     */
+    public static final class RenderStats {
+        private final int size;
+        private final int capacity;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        
+        RenderStats(int size, int capacity, long hits, long misses, long evictions) {
+            this.size = size;
+            this.capacity = capacity;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+        
+        public int getSize() { return size; }
+        public int getCapacity() { return capacity; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("RenderCache{size=%d, capacity=%d, hits=%d, misses=%d, evictions=%d}",
+                                 size, capacity, hits, misses, evictions);
+        }
+    }
+}
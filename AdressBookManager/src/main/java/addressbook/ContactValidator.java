@@ -0,0 +1,257 @@
+package addressbook;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Contact Validator Class
+ * Validation rules for contact fields, shared by the GUI and bulk imports.
+ * Each rule is a hand-written scanner over the characters, so checking a
+ * field allocates nothing. validate() reports every violation of a row as
+ * a bit mask; validateAll() checks a batch of contacts in parallel.
+ */
+public final class ContactValidator {
+
+    public enum Field { NAME, PHONE, EMAIL, ADDRESS }
+
+    /**
+     * A broken rule, with the field it belongs to and a message for the user.
+     */
+    public enum Violation {
+        NAME_REQUIRED(Field.NAME, "Name is required."),
+        NAME_TOO_SHORT(Field.NAME, "Name must be at least 2 characters long."),
+        NAME_TOO_LONG(Field.NAME, "Name must be at most " + ContactValidator.MAX_NAME + " characters long."),
+        PHONE_INVALID(Field.PHONE, "Please enter a valid phone number (10-15 digits)."),
+        EMAIL_INVALID(Field.EMAIL, "Please enter a valid email address."),
+        EMAIL_TOO_LONG(Field.EMAIL, "Email must be at most " + ContactValidator.MAX_EMAIL + " characters long."),
+        ADDRESS_TOO_SHORT(Field.ADDRESS, "Address must be at least 5 characters long.");
+
+        private final Field field;
+        private final String message;
+
+        Violation(Field field, String message) {
+            this.field = field;
+            this.message = message;
+        }
+
+        public Field getField() { return field; }
+        public String getMessage() { return message; }
+        public int mask() { return 1 << ordinal(); }
+    }
+
+    // Column sizes from the contacts table
+    public static final int MAX_NAME = 100;
+    public static final int MAX_EMAIL = 100;
+
+    private static final int MIN_NAME = 2;
+    private static final int MIN_ADDRESS = 5;
+    private static final int MIN_PHONE_DIGITS = 10;
+    private static final int MAX_PHONE_DIGITS = 15;
+
+    private static final Violation[] VIOLATIONS = Violation.values();
+
+    private ContactValidator() {
+    }
+
+    /**
+     * Checks all fields and returns the violations as a mask of
+     * Violation.mask() bits, 0 when the row is valid.
+     */
+    public static int validate(CharSequence name, CharSequence phone, CharSequence email, CharSequence address) {
+        int mask = 0;
+        int nameLength = trimmedLength(name);
+        if (nameLength == 0) {
+            mask |= Violation.NAME_REQUIRED.mask();
+        } else if (nameLength < MIN_NAME) {
+            mask |= Violation.NAME_TOO_SHORT.mask();
+        } else if (name.length() > MAX_NAME) {
+            mask |= Violation.NAME_TOO_LONG.mask();
+        }
+        if (!isValidPhone(phone)) {
+            mask |= Violation.PHONE_INVALID.mask();
+        }
+        if (!isValidEmail(email)) {
+            mask |= Violation.EMAIL_INVALID.mask();
+        } else if (email.length() > MAX_EMAIL) {
+            mask |= Violation.EMAIL_TOO_LONG.mask();
+        }
+        if (!isValidAddress(address)) {
+            mask |= Violation.ADDRESS_TOO_SHORT.mask();
+        }
+        return mask;
+    }
+
+    public static int validate(Contact c) {
+        return validate(c.getName(), c.getPhone(), c.getEmail(), c.getAddress());
+    }
+
+    // Decode a mask from validate(), in declaration order
+    public static List<Violation> violations(int mask) {
+        List<Violation> list = new ArrayList<>(Integer.bitCount(mask));
+        for (Violation v : VIOLATIONS) {
+            if ((mask & v.mask()) != 0) list.add(v);
+        }
+        return list;
+    }
+
+    // The violations of a mask as one line of text
+    public static String describe(int mask) {
+        StringBuilder sb = new StringBuilder();
+        for (Violation v : VIOLATIONS) {
+            if ((mask & v.mask()) != 0) {
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(v.getMessage());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Validates every contact in parallel and returns a per-row report.
+     */
+    public static Report validateAll(List<Contact> contacts) {
+        int[] masks = new int[contacts.size()];
+        IntStream.range(0, masks.length).parallel()
+                 .forEach(i -> masks[i] = validate(contacts.get(i)));
+        return new Report(masks);
+    }
+
+    /*
+     * Same language as ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$ :
+     * a non-empty local part, one '@', and a domain whose text after the
+     * last dot is at least two letters with something before that dot.
+     */
+    public static boolean isValidEmail(CharSequence email) {
+        if (email == null) return false;
+        int length = email.length();
+        int at = -1;
+        for (int i = 0; i < length; i++) {
+            char ch = email.charAt(i);
+            if (ch == '@') {
+                at = i;
+                break;
+            }
+            if (!isAlphanumeric(ch) && ch != '+' && ch != '_' && ch != '.' && ch != '-') return false;
+        }
+        if (at < 1) return false;
+
+        int lastDot = -1;
+        for (int i = at + 1; i < length; i++) {
+            char ch = email.charAt(i);
+            if (ch == '.') {
+                lastDot = i;
+            } else if (!isAlphanumeric(ch) && ch != '-') {
+                return false;
+            }
+        }
+        if (lastDot <= at + 1 || length - lastDot - 1 < 2) return false;
+        for (int i = lastDot + 1; i < length; i++) {
+            if (!isLetter(email.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // Same language as ^[+]?[0-9]{10,15}$
+    public static boolean isValidPhone(CharSequence phone) {
+        if (phone == null) return false;
+        int length = phone.length();
+        int start = length > 0 && phone.charAt(0) == '+' ? 1 : 0;
+        int digits = length - start;
+        if (digits < MIN_PHONE_DIGITS || digits > MAX_PHONE_DIGITS) return false;
+        for (int i = start; i < length; i++) {
+            char ch = phone.charAt(i);
+            if (ch < '0' || ch > '9') return false;
+        }
+        return true;
+    }
+
+    // At least two characters once surrounding whitespace is ignored
+    public static boolean isValidName(CharSequence name) {
+        return trimmedLength(name) >= MIN_NAME;
+    }
+
+    // At least five characters once surrounding whitespace is ignored
+    public static boolean isValidAddress(CharSequence address) {
+        return trimmedLength(address) >= MIN_ADDRESS;
+    }
+
+    // Length String.trim() would return, without creating the trimmed string
+    static int trimmedLength(CharSequence s) {
+        if (s == null) return 0;
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        return end - start;
+    }
+
+    private static boolean isLetter(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+    }
+
+    private static boolean isAlphanumeric(char ch) {
+        return isLetter(ch) || (ch >= '0' && ch <= '9');
+    }
+
+    /**
+     * Result of validateAll: the violation mask of every row.
+     */
+    public static final class Report {
+        private final int[] masks;
+        private final int invalidRows;
+
+        Report(int[] masks) {
+            this.masks = masks;
+            int invalid = 0;
+            for (int mask : masks) {
+                if (mask != 0) invalid++;
+            }
+            this.invalidRows = invalid;
+        }
+
+        public int getRowCount() { return masks.length; }
+        public int getInvalidRowCount() { return invalidRows; }
+        public boolean isValid() { return invalidRows == 0; }
+        public boolean isValid(int row) { return masks[row] == 0; }
+        public int getMask(int row) { return masks[row]; }
+
+        public List<Violation> getViolations(int row) {
+            return violations(masks[row]);
+        }
+
+        // Fields of the row that broke at least one rule
+        public EnumSet<Field> getInvalidFields(int row) {
+            EnumSet<Field> fields = EnumSet.noneOf(Field.class);
+            for (Violation v : violations(masks[row])) {
+                fields.add(v.getField());
+            }
+            return fields;
+        }
+
+        // Number of rows breaking the rule
+        public int count(Violation violation) {
+            int n = 0;
+            for (int mask : masks) {
+                if ((mask & violation.mask()) != 0) n++;
+            }
+            return n;
+        }
+
+        // Indexes of the invalid rows, in order
+        public int[] getInvalidRows() {
+            int[] rows = new int[invalidRows];
+            int n = 0;
+            for (int i = 0; i < masks.length; i++) {
+                if (masks[i] != 0) rows[n++] = i;
+            }
+            return rows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ValidationReport{rows=%d, invalid=%d}", masks.length, invalidRows);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package addressbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV Reader Class
+ * Minimal RFC 4180 record reader: quoted fields, doubled quotes, commas
+ * and line breaks inside quotes, and CRLF or LF line endings. Reads the
+ * underlying Reader through its own buffer one record at a time.
+ */
+class CsvReader implements Closeable {
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 16];
+    private int pos;
+    private int limit;
+
+    private long line = 1;
+    private long recordLine;
+
+    private final StringBuilder field = new StringBuilder(64);
+    private final List<String> fields = new ArrayList<>();
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Line number where the record last returned by next() started
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Returns the next record, or null at the end of input. Blank lines
+     * are skipped.
+     */
+    String[] next() throws IOException {
+        while (true) {
+            int ch = read();
+            if (ch < 0) {
+                return null;
+            }
+            if (ch == '\r' || ch == '\n') {
+                consumeLineBreak(ch);
+                continue;
+            }
+            recordLine = line;
+            return readRecord(ch);
+        }
+    }
+
+    private String[] readRecord(int ch) throws IOException {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStart = true;
+
+        while (true) {
+            if (ch < 0) {
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            }
+            if (quoted) {
+                if (ch == '"') {
+                    int nextCh = read();
+                    if (nextCh == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        ch = nextCh;
+                        continue;
+                    }
+                } else {
+                    if (ch == '\n') line++;
+                    field.append((char) ch);
+                }
+            } else if (ch == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (ch == '\r' || ch == '\n') {
+                consumeLineBreak(ch);
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            } else {
+                field.append((char) ch);
+                fieldStart = false;
+            }
+            ch = read();
+        }
+    }
+
+    private void consumeLineBreak(int ch) throws IOException {
+        line++;
+        if (ch == '\r') {
+            int nextCh = read();
+            if (nextCh != '\n' && nextCh >= 0) {
+                pos--; // Lone CR; give the character back
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            // Keep the last character so a single pushback always works
+            if (limit > 0) {
+                buffer[0] = buffer[limit - 1];
+                pos = 1;
+                limit = 1;
+            }
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n <= 0) {
+                return -1;
+            }
+            limit += n;
+        }
+        return buffer[pos++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -1,291 +1,1190 @@
-package addressbook;
-
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * Database Manager Class
- * Handles all database operations for the Address Book System
- */
-public class DatabaseManager {
-
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/addressbook_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "";
-    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
-
-    private Connection connection;
-    private static DatabaseManager instance;
-
-    // Singleton
-    private DatabaseManager() {
-        try {
-            Class.forName(DRIVER);
-            connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            System.out.println("Database connected successfully!");
-        } catch (Exception e) {
-            throw new RuntimeException("Database connection failed", e);
-        }
-    }
-
-    public static synchronized DatabaseManager getInstance() {
-        if (instance == null) {
-            instance = new DatabaseManager();
-        }
-        return instance;
-    }
-
-    // Create tables
-    public void initializeDatabase() {
-
-        String createContactsTable =
-                "CREATE TABLE IF NOT EXISTS contacts (" +
-                "id INT AUTO_INCREMENT PRIMARY KEY," +
-                "name VARCHAR(100) NOT NULL," +
-                "phone VARCHAR(20) NOT NULL," +
-                "email VARCHAR(100) NOT NULL UNIQUE," +
-                "address TEXT," +
-                "notes TEXT," +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
-                ")";
-
-        String createUsersTable =
-                "CREATE TABLE IF NOT EXISTS users (" +
-                "id INT AUTO_INCREMENT PRIMARY KEY," +
-                "username VARCHAR(50) NOT NULL UNIQUE," +
-                "password VARCHAR(100) NOT NULL," +
-                "email VARCHAR(100) NOT NULL UNIQUE," +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")";
-
-        try (Statement stmt = connection.createStatement()) {
-
-            stmt.execute(createContactsTable);
-            stmt.execute(createUsersTable);
-
-            String insertAdmin =
-                    "INSERT IGNORE INTO users (username, password, email) " +
-                    "VALUES ('admin','admin123','admin@addressbook.com')";
-
-            stmt.execute(insertAdmin);
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Database initialization failed", e);
-        }
-    }
-
-    // Insert sample data
-    public void insertSampleData() {
-
-        String checkQuery = "SELECT COUNT(*) FROM contacts";
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(checkQuery)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-
-                String[] sampleData = {
-                        "('John Smith','1234567890','john.smith@email.com','123 Main St','Software Engineer')",
-                        "('Sarah Johnson','2345678901','sarah.johnson@email.com','456 Oak Ave','Marketing Manager')",
-                        "('Michael Brown','3456789012','michael.brown@email.com','789 Pine Rd','Data Analyst')",
-                        "('Emily Davis','4567890123','emily.davis@email.com','321 Elm St','UX Designer')"
-                };
-
-                String base =
-                        "INSERT INTO contacts (name, phone, email, address, notes) VALUES ";
-
-                for (String row : sampleData) {
-                    stmt.execute(base + row);
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Failed to insert sample data: " + e.getMessage());
-        }
-    }
-
-    // Authentication
-    public boolean authenticateUser(String username, String password) {
-
-        String query = "SELECT id FROM users WHERE username=? AND password=?";
-
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
-            ps.setString(1, username);
-            ps.setString(2, password);
-            return ps.executeQuery().next();
-        } catch (SQLException e) {
-            return false;
-        }
-    }
-
-    // Insert contact
-    public boolean insertContact(Contact c) {
-
-        String query =
-                "INSERT INTO contacts (name, phone, email, address, notes) " +
-                "VALUES (?, ?, ?, ?, ?)";
-
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
-
-            ps.setString(1, c.getName());
-            ps.setString(2, c.getPhone());
-            ps.setString(3, c.getEmail());
-            ps.setString(4, c.getAddress());
-            ps.setString(5, c.getNotes());
-
-            return ps.executeUpdate() > 0;
-
-        } catch (SQLException e) {
-            return false;
-        }
-    }
-
-    // Get all contacts
-    public List<Contact> getAllContacts() {
-
-        List<Contact> list = new ArrayList<>();
-        String query = "SELECT * FROM contacts ORDER BY name";
-
-        try (Statement st = connection.createStatement();
-             ResultSet rs = st.executeQuery(query)) {
-
-            while (rs.next()) {
-                list.add(mapContact(rs));
-            }
-
-        } catch (SQLException e) {
-            System.err.println(e.getMessage());
-        }
-
-        return list;
-    }
-
-    // Search contacts
-    public List<Contact> searchContacts(String term) {
-
-        List<Contact> list = new ArrayList<>();
-
-        String query =
-                "SELECT * FROM contacts WHERE " +
-                "name LIKE ? OR phone LIKE ? OR email LIKE ? OR address LIKE ? " +
-                "ORDER BY name";
-
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
-
-            String p = "%" + term + "%";
-            ps.setString(1, p);
-            ps.setString(2, p);
-            ps.setString(3, p);
-            ps.setString(4, p);
-
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                list.add(mapContact(rs));
-            }
-
-        } catch (SQLException e) {
-            System.err.println(e.getMessage());
-        }
-
-        return list;
-    }
-
-    // Update contact
-    public boolean updateContact(Contact c) {
-
-        String query =
-                "UPDATE contacts SET name=?, phone=?, email=?, address=?, notes=? WHERE id=?";
-
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
-
-            ps.setString(1, c.getName());
-            ps.setString(2, c.getPhone());
-            ps.setString(3, c.getEmail());
-            ps.setString(4, c.getAddress());
-            ps.setString(5, c.getNotes());
-            ps.setInt(6, c.getId());
-
-            return ps.executeUpdate() > 0;
-
-        } catch (SQLException e) {
-            return false;
-        }
-    }
-
-    // Delete contact
-    public boolean deleteContact(int id) {
-
-        try (PreparedStatement ps =
-                     connection.prepareStatement("DELETE FROM contacts WHERE id=?")) {
-
-            ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
-
-        } catch (SQLException e) {
-            return false;
-        }
-    }
-
-    // Get contact by ID
-    public Contact getContactById(int id) {
-
-        try (PreparedStatement ps =
-                     connection.prepareStatement("SELECT * FROM contacts WHERE id=?")) {
-
-            ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                return mapContact(rs);
-            }
-
-        } catch (SQLException e) {
-            System.err.println(e.getMessage());
-        }
-
-        return null;
-    }
-
-    // Backup database
-    public boolean backupDatabase(String backupPath) {
-        try {
-            String command =
-                    "mysqldump -u" + DB_USER +
-                    " -p" + DB_PASSWORD +
-                    " addressbook_db > " + backupPath;
-
-            Process process = Runtime.getRuntime().exec(command);
-            return process.waitFor() == 0;
-
-        } catch (Exception e) {
-            System.err.println("Database backup failed: " + e.getMessage());
-            return false;
-        }
-    }
-
-    // Helper mapper
-    private Contact mapContact(ResultSet rs) throws SQLException {
-
-        Contact c = new Contact();
-        c.setId(rs.getInt("id"));
-        c.setName(rs.getString("name"));
-        c.setPhone(rs.getString("phone"));
-        c.setEmail(rs.getString("email"));
-        c.setAddress(rs.getString("address"));
-        c.setNotes(rs.getString("notes"));
-
-        Timestamp created = rs.getTimestamp("created_at");
-        Timestamp updated = rs.getTimestamp("updated_at");
-
-        if (created != null) c.setCreatedAt(created.toLocalDateTime());
-        if (updated != null) c.setUpdatedAt(updated.toLocalDateTime());
-
-        return c;
-    }
-
-    public Connection getConnection() {
-        return connection;
-    }
-}
+package addressbook;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Database Manager Class
+ * Handles all database operations for the Address Book System
+ */
+public class DatabaseManager {
+
+    // Connection settings, overridable with -Daddressbook.db.* system properties
+    private static final String DB_URL = System.getProperty("addressbook.db.url", "jdbc:mysql://localhost:3306/addressbook_db");
+    private static final String DB_USER = System.getProperty("addressbook.db.user", "root");
+    private static final String DB_PASSWORD = System.getProperty("addressbook.db.password", "");
+    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
+
+    // Pool settings, overridable with -Daddressbook.pool.* system properties
+    private static final int POOL_MIN_SIZE = Integer.getInteger("addressbook.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("addressbook.pool.maxSize", 10);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("addressbook.pool.borrowTimeoutMs", 5000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("addressbook.pool.idleTimeoutMs", 60000L);
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("addressbook.pool.statementCacheSize", 64);
+
+    // Answer searchContacts from an in-memory trigram index (-Daddressbook.search.index=true).
+    // The index follows this process's writes and getContactsChangedSince; writes by other
+    // clients are only seen by a process that polls the change feed.
+    private static final boolean SEARCH_INDEX_ENABLED = Boolean.getBoolean("addressbook.search.index");
+
+    // Use a FULLTEXT index for word searches (-Daddressbook.search.fulltext=true)
+    private static final boolean FULLTEXT_ENABLED = Boolean.getBoolean("addressbook.search.fulltext");
+    // Matches InnoDB's default innodb_ft_min_token_size; shorter words are not indexed
+    private static final int FULLTEXT_MIN_WORD = 3;
+
+    // After an unfinished bulk load, rebuild the missing contact indexes at startup instead of only reporting them
+    private static final boolean REPAIR_INDEXES = Boolean.getBoolean("addressbook.schema.repairIndexes");
+
+    // Contact-by-id cache, overridable with -Daddressbook.cache.* (size 0 disables it)
+    private static final int CONTACT_CACHE_SIZE = Integer.getInteger("addressbook.cache.size", 1024);
+    private static final long CONTACT_CACHE_TTL_MS = Long.getLong("addressbook.cache.ttlMs", 0L);
+
+    // Rows written this close to "now" may belong to transactions that have
+    // not committed yet, so the change feed re-reads them on the next poll
+    private static final long CHANGE_FEED_OVERLAP_MS = 2000;
+    // Tombstones older than this are deleted; a watermark older than that gets an incomplete change set
+    private static final int TOMBSTONE_RETENTION_DAYS = Integer.getInteger("addressbook.changes.tombstoneRetentionDays", 30);
+    private static final long TOMBSTONE_PRUNE_INTERVAL_MS = 60 * 60 * 1000L;
+    private static final int TOMBSTONE_PRUNE_BATCH = 10000;
+
+    // Operation metrics: published over JMX unless disabled, and printed every N seconds if set
+    private static final boolean METRICS_JMX = !"false".equals(System.getProperty("addressbook.metrics.jmx"));
+    private static final long METRICS_DUMP_INTERVAL_SEC = Long.getLong("addressbook.metrics.dumpIntervalSec", 0L);
+
+    // Phone punctuation that the phone_digits column leaves out
+    private static final String PHONE_SEPARATORS = "+ -().";
+
+    // Queries slower than this are logged with their EXPLAIN plan; negative turns the log off
+    private static final long SLOW_QUERY_MS = Long.getLong("addressbook.slowQuery.thresholdMs", 500L);
+    private static final int SLOW_QUERY_RING_SIZE = Integer.getInteger("addressbook.slowQuery.ringSize", 200);
+    // Log file, rotated by size; an empty name keeps the log in memory only
+    private static final String SLOW_QUERY_FILE = System.getProperty("addressbook.slowQuery.file", "slow-queries.log");
+    private static final long SLOW_QUERY_MAX_FILE_BYTES = Long.getLong("addressbook.slowQuery.maxFileBytes", 1024L * 1024);
+    private static final int SLOW_QUERY_MAX_FILES = Integer.getInteger("addressbook.slowQuery.maxFiles", 5);
+
+    private final ConnectionPool pool;
+    private final ContactCache contactCache =
+            CONTACT_CACHE_SIZE > 0 ? new ContactCache(CONTACT_CACHE_SIZE, CONTACT_CACHE_TTL_MS) : null;
+    private volatile AsyncDatabaseManager async;
+    private volatile TrigramIndex searchIndex;
+    // System.currentTimeMillis() of the last tombstone prune, 0 before the first
+    private volatile long lastTombstonePrune;
+    // Set once initializeDatabase has brought the schema up to date
+    private boolean schemaReady;
+    private static DatabaseManager instance;
+
+    private final DatabaseMetrics metrics = new DatabaseMetrics(this);
+    private final SlowQueryLog slowQueries = new SlowQueryLog(this, SLOW_QUERY_MS, SLOW_QUERY_RING_SIZE,
+            SLOW_QUERY_FILE.isEmpty() ? null : Paths.get(SLOW_QUERY_FILE),
+            SLOW_QUERY_MAX_FILE_BYTES, SLOW_QUERY_MAX_FILES);
+    private final DatabaseMetrics.Operation initializeOp = metrics.operation("initializeDatabase");
+    private final DatabaseMetrics.Operation authenticateOp = metrics.operation("authenticateUser");
+    private final DatabaseMetrics.Operation insertOp = metrics.operation("insertContact");
+    private final DatabaseMetrics.Operation listOp = metrics.operation("getAllContacts");
+    private final DatabaseMetrics.Operation listCompactOp = metrics.operation("getAllContactsCompact");
+    private final DatabaseMetrics.Operation pageAfterOp = metrics.operation("getContactsAfter");
+    private final DatabaseMetrics.Operation pageAtOp = metrics.operation("getContactsAt");
+    private final DatabaseMetrics.Operation countOp = metrics.operation("getContactCount");
+    private final DatabaseMetrics.Operation searchOp = metrics.operation("searchContacts");
+    private final DatabaseMetrics.Operation updateOp = metrics.operation("updateContact");
+    private final DatabaseMetrics.Operation deleteOp = metrics.operation("deleteContact");
+    private final DatabaseMetrics.Operation byIdOp = metrics.operation("getContactById");
+    private final DatabaseMetrics.Operation timeOp = metrics.operation("getDatabaseTime");
+    private final DatabaseMetrics.Operation changesOp = metrics.operation("getContactsChangedSince");
+    private final DatabaseMetrics.Operation backupOp = metrics.operation("backupDatabase");
+
+    // Singleton
+    private DatabaseManager() {
+        try {
+            Class.forName(DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Database connection failed", e);
+        }
+
+        Properties props = new Properties();
+        props.setProperty("user", DB_USER);
+        props.setProperty("password", DB_PASSWORD);
+        // Send JDBC batches as multi-row INSERTs
+        props.setProperty("rewriteBatchedStatements", "true");
+        // Prepare statements on the server once per connection and let the driver cache them
+        props.setProperty("useServerPrepStmts", "true");
+        props.setProperty("cachePrepStmts", "true");
+        props.setProperty("prepStmtCacheSize", "250");
+        props.setProperty("prepStmtCacheSqlLimit", "2048");
+
+        pool = new ConnectionPool(DB_URL, props, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                                  POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_STATEMENT_CACHE_SIZE);
+        System.out.println("Database connected successfully! " + pool.getStats());
+
+        if (METRICS_JMX) {
+            metrics.registerMBean();
+        }
+        metrics.startDump(METRICS_DUMP_INTERVAL_SEC);
+    }
+
+    public static synchronized DatabaseManager getInstance() {
+        if (instance == null) {
+            instance = new DatabaseManager();
+        }
+        return instance;
+    }
+
+    // Asynchronous facade backed by a bounded executor sized to the pool
+    public AsyncDatabaseManager async() {
+        AsyncDatabaseManager a = async;
+        if (a == null) {
+            synchronized (this) {
+                a = async;
+                if (a == null) {
+                    a = new AsyncDatabaseManager(this, POOL_MAX_SIZE);
+                    async = a;
+                }
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Brings the schema up to date through SchemaMigrator. Against a
+     * current database this is one SELECT on schema_version, and once it
+     * has succeeded further calls in this process return at once. Only
+     * when that SELECT finds the marker of a bulk load that dropped the
+     * contact indexes are the indexes looked up as well.
+     */
+    public synchronized void initializeDatabase() {
+        if (schemaReady) return;
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow()) {
+
+            // The FULLTEXT index is an opt-in migration, created the first time it is enabled
+            SchemaMigrator migrator = new SchemaMigrator(FULLTEXT_ENABLED);
+            int applied = migrator.migrate(conn);
+
+            // A bulk load that stopped between dropping and rebuilding the indexes left its marker behind
+            if (migrator.hasDroppedIndexes()) {
+                List<String> missing = missingContactIndexes(conn);
+                if (missing.isEmpty()) {
+                    SchemaMigrator.markIndexesDropped(conn, false);
+                } else if (REPAIR_INDEXES) {
+                    System.out.println("Rebuilding missing contact indexes " + missing);
+                    rebuildContactIndexes(missing);
+                } else {
+                    System.err.println("Contact indexes " + missing + " were dropped by a bulk load that is " +
+                                       "still running or did not finish, so paging, sorting and the change " +
+                                       "feed scan the whole table; start with " +
+                                       "-Daddressbook.schema.repairIndexes=true to rebuild them");
+                }
+            }
+
+            schemaReady = true;
+            initializeOp.success(start, applied);
+
+        } catch (SQLException e) {
+            initializeOp.failure(start, e);
+            throw new RuntimeException("Database initialization failed", e);
+        }
+    }
+
+    // Insert sample data if the contacts table is empty; a new database gets it from its migrations
+    public void insertSampleData() {
+        try (Connection conn = pool.borrow()) {
+            SchemaMigrator.insertSampleContacts(conn);
+        } catch (SQLException e) {
+            System.err.println("Failed to insert sample data: " + e.getMessage());
+        }
+    }
+
+    // Authentication
+    public boolean authenticateUser(String username, String password) {
+
+        String query = "SELECT id FROM users WHERE username=? AND password=?";
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setString(1, username);
+            ps.setString(2, password);
+            try (ResultSet rs = ps.executeQuery()) {
+                boolean found = rs.next();
+                authenticateOp.success(start, found ? 1 : 0);
+                slowQueries.record("authenticateUser", query, start, found ? 1 : 0, username, SlowQueryLog.REDACTED);
+                return found;
+            }
+        } catch (SQLException e) {
+            authenticateOp.failure(start, e);
+            return false;
+        }
+    }
+
+    /**
+     * Inserts a contact and returns the persisted row, with its generated
+     * id and server timestamps, or null if the insert failed.
+     */
+    public Contact insertContact(Contact c) {
+        try {
+            return insertContactChecked(c);
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    // As insertContact, but a database failure is thrown instead of returning null
+    Contact insertContactChecked(Contact c) throws SQLException {
+
+        String query =
+                "INSERT INTO contacts (name, phone, email, address, notes) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+
+            ps.setString(1, c.getName());
+            ps.setString(2, c.getPhone());
+            ps.setString(3, c.getEmail());
+            ps.setString(4, c.getAddress());
+            ps.setString(5, c.getNotes());
+
+            if (ps.executeUpdate() == 0) {
+                insertOp.success(start, 0);
+                return null;
+            }
+            int id;
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    insertOp.success(start, 0);
+                    return null;
+                }
+                id = keys.getInt(1);
+            }
+
+            Contact saved = readContact(conn, id);
+            if (saved != null) {
+                TrigramIndex index = searchIndex;
+                if (index != null) index.put(saved);
+                if (contactCache != null) contactCache.put(saved);
+            }
+            insertOp.success(start, saved != null ? 1 : 0);
+            return saved;
+
+        } catch (SQLException e) {
+            insertOp.failure(start, e);
+            throw e;
+        }
+    }
+
+    // Get all contacts
+    public List<Contact> getAllContacts() {
+        return getAllContacts(null);
+    }
+
+    // Get all contacts; the query can be cancelled through the handle
+    public List<Contact> getAllContacts(QueryHandle handle) {
+        return getAllContacts(handle, ContactSort.DEFAULT);
+    }
+
+    // Get all contacts in the given order
+    public List<Contact> getAllContacts(QueryHandle handle, ContactSort sort) {
+
+        List<Contact> list = new ArrayList<>();
+        String query = "SELECT * FROM contacts ORDER BY " + sort.orderBy();
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             Statement st = conn.createStatement()) {
+
+            if (handle != null) handle.attach(st);
+            try (ResultSet rs = st.executeQuery(query)) {
+                while (rs.next()) {
+                    list.add(mapContact(rs));
+                }
+            } finally {
+                if (handle != null) handle.detach();
+            }
+            listOp.success(start, list.size());
+            slowQueries.record("getAllContacts", query, start, list.size());
+
+        } catch (SQLException e) {
+            listOp.failure(start, e);
+            if (handle == null || !handle.isCancelled()) {
+                System.err.println(e.getMessage());
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Loads every contact, ordered by name, into a CompactContactStore.
+     * Rows are streamed from the server and copied straight into the
+     * store, so no Contact objects are created along the way.
+     */
+    public CompactContactStore getAllContactsCompact(QueryHandle handle) {
+
+        CompactContactStore store = new CompactContactStore(Math.max(16, getContactCount()));
+        String query =
+                "SELECT id, name, phone, email, address, notes, created_at, updated_at " +
+                "FROM contacts ORDER BY name, id";
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             Statement st = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            st.setFetchSize(Integer.MIN_VALUE);
+            if (handle != null) handle.attach(st);
+            try (ResultSet rs = st.executeQuery(query)) {
+                while (rs.next()) {
+                    store.add(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                              rs.getString(5), rs.getString(6),
+                              toMillis(rs.getTimestamp(7)), toMillis(rs.getTimestamp(8)));
+                }
+            } finally {
+                if (handle != null) handle.detach();
+            }
+            listCompactOp.success(start, store.size());
+            slowQueries.record("getAllContactsCompact", query, start, store.size());
+
+        } catch (SQLException e) {
+            listCompactOp.failure(start, e);
+            if (handle == null || !handle.isCancelled()) {
+                System.err.println(e.getMessage());
+            }
+        }
+
+        return store;
+    }
+
+    private static long toMillis(Timestamp ts) {
+        return CompactContactStore.toMillis(ts != null ? ts.toLocalDateTime() : null);
+    }
+
+    /**
+     * Keyset pagination: returns up to limit contacts that sort after
+     * (lastName, lastId) in (name, id) order. Pass a null lastName for the
+     * first page. Each page is an index range scan, however deep it is.
+     */
+    public List<Contact> getContactsAfter(String lastName, int lastId, int limit) {
+        Contact previous = null;
+        if (lastName != null) {
+            previous = new Contact();
+            previous.setId(lastId);
+            previous.setName(lastName);
+        }
+        return getContactsAfter(previous, ContactSort.DEFAULT, limit);
+    }
+
+    /**
+     * Keyset pagination in any order that supports it: returns up to limit
+     * contacts that sort after the previous contact, or the first page when
+     * previous is null.
+     */
+    public List<Contact> getContactsAfter(Contact previous, ContactSort sort, int limit) {
+
+        List<Contact> list = new ArrayList<>();
+        String query = previous == null
+                ? "SELECT * FROM contacts ORDER BY " + sort.orderBy() + " LIMIT ?"
+                : "SELECT * FROM contacts WHERE " + sort.afterCondition() +
+                  " ORDER BY " + sort.orderBy() + " LIMIT ?";
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            int index = previous == null ? 1 : sort.bindAfter(ps, 1, previous);
+            ps.setInt(index, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapContact(rs));
+                }
+            }
+            pageAfterOp.success(start, list.size());
+            slowQueries.record("getContactsAfter", query, start, list.size(), pageParams(previous, sort, limit));
+
+        } catch (SQLException e) {
+            pageAfterOp.failure(start, e);
+            System.err.println(e.getMessage());
+        }
+
+        return list;
+    }
+
+    // The values getContactsAfter binds, for the slow query log
+    private static Object[] pageParams(Contact previous, ContactSort sort, int limit) {
+        if (previous == null) {
+            return new Object[] { limit };
+        }
+        Object[] key = sort.afterValues(previous);
+        Object[] params = Arrays.copyOf(key, key.length + 1);
+        params[key.length] = limit;
+        return params;
+    }
+
+    /**
+     * Returns the id and name of the contact at a row offset in (name, id)
+     * order, used to find the keyset anchor when the table jumps to a page
+     * whose predecessor was never loaded.
+     */
+    public Contact getContactKeyAt(int offset) {
+        return getContactKeyAt(offset, ContactSort.DEFAULT);
+    }
+
+    /*
+     * The id and sort key of the row at an offset in a keyset order. Only
+     * those columns are selected so the skipped rows are read from the
+     * covering (column, id) index rather than the table.
+     */
+    public Contact getContactKeyAt(int offset, ContactSort sort) {
+
+        String query = "SELECT " + sort.keyColumns() + " FROM contacts ORDER BY " + sort.orderBy() + " LIMIT ?, 1";
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            ps.setInt(1, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                Contact key = rs.next() ? sort.readKey(rs) : null;
+                pageAtOp.success(start, key != null ? 1 : 0);
+                slowQueries.record("getContactKeyAt", query, start, key != null ? 1 : 0, offset);
+                return key;
+            }
+
+        } catch (SQLException e) {
+            pageAtOp.failure(start, e);
+            System.err.println(e.getMessage());
+        }
+
+        return null;
+    }
+
+    // OFFSET paging, for orders that cannot be paged by key
+    private List<Contact> getContactsAt(int offset, ContactSort sort, int limit) {
+
+        List<Contact> list = new ArrayList<>();
+        String query = "SELECT * FROM contacts ORDER BY " + sort.orderBy() + " LIMIT ?, ?";
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            ps.setInt(1, offset);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapContact(rs));
+                }
+            }
+            pageAtOp.success(start, list.size());
+            slowQueries.record("getContactsAt", query, start, list.size(), offset, limit);
+
+        } catch (SQLException e) {
+            pageAtOp.failure(start, e);
+            System.err.println(e.getMessage());
+        }
+
+        return list;
+    }
+
+    /**
+     * One page of the sorted contact list. Uses keyset pagination from the
+     * previous page's last contact when the order allows it, looking the
+     * anchor up by offset if that contact is not known.
+     */
+    public List<Contact> getContactPage(int offset, Contact previous, ContactSort sort, int limit) {
+        if (!sort.supportsKeyset()) {
+            return getContactsAt(offset, sort, limit);
+        }
+        Contact anchor = previous;
+        if (anchor == null && offset > 0) {
+            anchor = getContactKeyAt(offset - 1, sort);
+            if (anchor == null) {
+                return new ArrayList<>();
+            }
+        }
+        return getContactsAfter(anchor, sort, limit);
+    }
+
+    // Count contacts
+    public int getContactCount() {
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM contacts")) {
+
+            int count = rs.next() ? rs.getInt(1) : 0;
+            countOp.success(start, 1);
+            slowQueries.record("getContactCount", "SELECT COUNT(*) FROM contacts", start, 1);
+            return count;
+
+        } catch (SQLException e) {
+            countOp.failure(start, e);
+            System.err.println(e.getMessage());
+        }
+
+        return 0;
+    }
+
+    // Search contacts
+    public List<Contact> searchContacts(String term) {
+        return searchContacts(term, null);
+    }
+
+    // Search contacts; the query can be cancelled through the handle
+    public List<Contact> searchContacts(String term, QueryHandle handle) {
+        return searchContacts(term, handle, null);
+    }
+
+    /**
+     * Search with an explicit order. A null sort keeps the default: by
+     * relevance for FULLTEXT matches, by name otherwise.
+     */
+    public List<Contact> searchContacts(String term, QueryHandle handle, ContactSort sort) {
+        return searchContacts(term, handle, sort, 0, 0);
+    }
+
+    /**
+     * One page of search results: at most limit matches after skipping
+     * offset, with the LIMIT applied by the database so only the page is
+     * read. A limit of 0 returns every match.
+     */
+    public List<Contact> searchContacts(String term, QueryHandle handle, ContactSort sort, int offset, int limit) {
+        try {
+            return searchContactsChecked(term, handle, sort, offset, limit);
+        } catch (SQLException e) {
+            if (handle == null || !handle.isCancelled()) {
+                System.err.println(e.getMessage());
+            }
+            return new ArrayList<>();
+        }
+    }
+
+    // As searchContacts, but a database failure is thrown instead of returning no matches
+    List<Contact> searchContactsChecked(String term, QueryHandle handle, ContactSort sort, int offset, int limit)
+            throws SQLException {
+
+        long start = System.nanoTime();
+        if (SEARCH_INDEX_ENABLED && !hasLikeWildcard(term) && phoneDigits(term) == null) {
+            List<Contact> found = searchIndex().search(term);
+            if (sort != null && !sort.equals(ContactSort.DEFAULT)) {
+                found.sort(sort.comparator());
+            }
+            if (limit > 0) {
+                int from = Math.min(offset, found.size());
+                found = new ArrayList<>(found.subList(from, Math.min(from + limit, found.size())));
+            }
+            searchOp.success(start, found.size());
+            return found;
+        }
+
+        List<Contact> list = new ArrayList<>();
+
+        String booleanQuery = FULLTEXT_ENABLED ? toBooleanQuery(term) : null;
+        String query;
+        Object[] params;
+
+        if (booleanQuery != null) {
+            query = "SELECT *, MATCH (name, email, address, notes) AGAINST (? IN BOOLEAN MODE) AS relevance " +
+                    "FROM contacts WHERE MATCH (name, email, address, notes) AGAINST (? IN BOOLEAN MODE) " +
+                    "ORDER BY " + (sort != null ? sort.orderBy() : "relevance DESC, name, id");
+            params = new Object[] { booleanQuery, booleanQuery };
+        } else {
+            // A formatted phone number also matches the stored digits, e.g. "(234) 567-8901"
+            String digits = phoneDigits(term);
+            query = "SELECT * FROM contacts WHERE " +
+                    "name LIKE ? OR phone LIKE ? OR email LIKE ? OR address LIKE ? " +
+                    (digits != null ? "OR phone_digits LIKE ? " : "") +
+                    "ORDER BY " + (sort != null ? sort.orderBy() : ContactSort.DEFAULT.orderBy());
+            String p = "%" + term + "%";
+            params = digits != null ? new Object[] { p, p, p, p, "%" + digits + "%" } : new Object[] { p, p, p, p };
+        }
+        if (limit > 0) {
+            query += " LIMIT ?, ?";
+            params = Arrays.copyOf(params, params.length + 2);
+            params[params.length - 2] = offset;
+            params[params.length - 1] = limit;
+        }
+
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+
+            if (handle != null) handle.attach(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapContact(rs));
+                }
+            } finally {
+                if (handle != null) handle.detach();
+            }
+            searchOp.success(start, list.size());
+            slowQueries.record("searchContacts", query, start, list.size(), params);
+
+        } catch (SQLException e) {
+            searchOp.failure(start, e);
+            throw e;
+        }
+
+        return list;
+    }
+
+    /**
+     * Updates a contact and returns the persisted row, with its new
+     * updated_at, or null if the update failed or the contact is gone.
+     */
+    public Contact updateContact(Contact c) {
+        try {
+            return updateContactChecked(c);
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    // As updateContact, but a database failure is thrown; null still means the contact is gone
+    Contact updateContactChecked(Contact c) throws SQLException {
+
+        String query =
+                "UPDATE contacts SET name=?, phone=?, email=?, address=?, notes=? WHERE id=?";
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            ps.setString(1, c.getName());
+            ps.setString(2, c.getPhone());
+            ps.setString(3, c.getEmail());
+            ps.setString(4, c.getAddress());
+            ps.setString(5, c.getNotes());
+            ps.setInt(6, c.getId());
+
+            if (ps.executeUpdate() == 0) {
+                updateOp.success(start, 0);
+                return null;
+            }
+
+            Contact saved = readContact(conn, c.getId());
+            if (saved != null) {
+                TrigramIndex index = searchIndex;
+                if (index != null) index.put(saved);
+                if (contactCache != null) contactCache.put(saved);
+            }
+            updateOp.success(start, saved != null ? 1 : 0);
+            return saved;
+
+        } catch (SQLException e) {
+            updateOp.failure(start, e);
+            // The row may have changed even though it could not be read back
+            if (contactCache != null) contactCache.invalidate(c.getId());
+            throw e;
+        }
+    }
+
+    // Delete contact, leaving a tombstone for the change feed in the same transaction
+    public boolean deleteContact(int id) {
+        try {
+            return deleteContactChecked(id);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // As deleteContact, but a database failure is thrown; false only means there was no such contact
+    boolean deleteContactChecked(int id) throws SQLException {
+
+        String tombstone =
+                "INSERT INTO contact_tombstones (contact_id) VALUES (?) " +
+                "ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP";
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM contacts WHERE id=?");
+             PreparedStatement ts = conn.prepareStatement(tombstone)) {
+
+            conn.setAutoCommit(false);
+            ps.setInt(1, id);
+            if (ps.executeUpdate() == 0) {
+                conn.rollback();
+                deleteOp.success(start, 0);
+                return false;
+            }
+            ts.setInt(1, id);
+            ts.executeUpdate();
+            conn.commit();
+
+            TrigramIndex index = searchIndex;
+            if (index != null) index.remove(id);
+            if (contactCache != null) contactCache.invalidate(id);
+            deleteOp.success(start, 1);
+            pruneTombstonesIfDue();
+            return true;
+
+        } catch (SQLException e) {
+            deleteOp.failure(start, e);
+            throw e;
+        }
+    }
+
+    // Get contact by ID, from the cache when it holds the contact
+    public Contact getContactById(int id) {
+        try {
+            return getContactByIdChecked(id);
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+
+        return null;
+    }
+
+    // As getContactById, but a database failure is thrown; null only means there is no such contact
+    Contact getContactByIdChecked(int id) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Contact c = contactCache != null ? contactCache.get(id, this::loadContactById) : loadContactById(id);
+            byIdOp.success(start, c != null ? 1 : 0);
+            return c;
+        } catch (LoadFailure e) {
+            byIdOp.failure(start, e.getCause());
+            throw e.getCause();
+        }
+    }
+
+    // Cache loader; a failure is passed up so getContactById records it once
+    private Contact loadContactById(int id) {
+        try (Connection conn = pool.borrow()) {
+            return readContact(conn, id);
+        } catch (SQLException e) {
+            throw new LoadFailure(e);
+        }
+    }
+
+    // Carries an SQLException through the cache's loader function
+    private static final class LoadFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LoadFailure(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    // Read one contact on an already borrowed connection
+    private Contact readContact(Connection conn, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM contacts WHERE id=?")) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapContact(rs) : null;
+            }
+        }
+    }
+
+    /*
+     * Drops tombstones past the retention period, at most once an hour and
+     * from the delete path, which is what makes them grow. Batched so a
+     * large backlog does not hold locks in one long statement.
+     */
+    private void pruneTombstonesIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastTombstonePrune < TOMBSTONE_PRUNE_INTERVAL_MS) return;
+        lastTombstonePrune = now;
+
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM contact_tombstones WHERE deleted_at < CURRENT_TIMESTAMP - INTERVAL ? DAY LIMIT ?")) {
+            ps.setInt(1, TOMBSTONE_RETENTION_DAYS);
+            ps.setInt(2, TOMBSTONE_PRUNE_BATCH);
+            while (ps.executeUpdate() == TOMBSTONE_PRUNE_BATCH) {
+                // Keep going until the backlog is gone
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to prune contact tombstones: " + e.getMessage());
+        }
+    }
+
+    // Current time on the database server, the starting watermark for getContactsChangedSince
+    public Timestamp getDatabaseTime() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT CURRENT_TIMESTAMP")) {
+            rs.next();
+            Timestamp now = rs.getTimestamp(1);
+            timeOp.success(start, 1);
+            return now;
+        } catch (SQLException e) {
+            timeOp.failure(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the contacts inserted or updated and the ids deleted at or
+     * after the watermark, plus the watermark to pass on the next call.
+     * Rows near the watermark may be reported again; applying a change set
+     * is idempotent, upserts first and then deletes. A watermark older
+     * than the tombstone retention gives a change set that is not
+     * complete, since deletes from before the retention are gone.
+     */
+    public ChangeSet getContactsChangedSince(Timestamp watermark) throws SQLException {
+
+        long start = System.nanoTime();
+        try (Connection conn = pool.borrow();
+             PreparedStatement upserts = conn.prepareStatement(
+                     "SELECT * FROM contacts WHERE updated_at >= ? ORDER BY updated_at, id");
+             PreparedStatement deletes = conn.prepareStatement(
+                     "SELECT contact_id FROM contact_tombstones WHERE deleted_at >= ?")) {
+
+            // Read the clock first so nothing committed after it is skipped next time
+            Timestamp now;
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT CURRENT_TIMESTAMP")) {
+                rs.next();
+                now = rs.getTimestamp(1);
+            }
+
+            List<Contact> changed = new ArrayList<>();
+            upserts.setTimestamp(1, watermark);
+            try (ResultSet rs = upserts.executeQuery()) {
+                while (rs.next()) {
+                    changed.add(mapContact(rs));
+                }
+            }
+
+            List<Integer> deleted = new ArrayList<>();
+            deletes.setTimestamp(1, watermark);
+            try (ResultSet rs = deletes.executeQuery()) {
+                while (rs.next()) {
+                    deleted.add(rs.getInt(1));
+                }
+            }
+
+            // Keep derived data in step with what other clients wrote
+            TrigramIndex index = searchIndex;
+            for (Contact c : changed) {
+                if (index != null) index.put(c);
+                if (contactCache != null) contactCache.put(c);
+            }
+            for (int id : deleted) {
+                if (index != null) index.remove(id);
+                if (contactCache != null) contactCache.invalidate(id);
+            }
+
+            long next = Math.max(watermark.getTime(), now.getTime() - CHANGE_FEED_OVERLAP_MS);
+            boolean complete = watermark.getTime() > now.getTime() - TOMBSTONE_RETENTION_DAYS * 24L * 3600 * 1000;
+            changesOp.success(start, changed.size() + deleted.size());
+            return new ChangeSet(changed, deleted, new Timestamp(next), complete);
+
+        } catch (SQLException e) {
+            changesOp.failure(start, e);
+            throw e;
+        }
+    }
+
+    // Backup database
+    public boolean backupDatabase(String backupPath) {
+        long start = System.nanoTime();
+        try {
+            String command =
+                    "mysqldump -u" + DB_USER +
+                    " -p" + DB_PASSWORD +
+                    " addressbook_db > " + backupPath;
+
+            Process process = Runtime.getRuntime().exec(command);
+            int exit = process.waitFor();
+            if (exit != 0) {
+                backupOp.failure(start, new IOException("mysqldump exited with status " + exit));
+                System.err.println("Database backup failed: mysqldump exited with status " + exit);
+                return false;
+            }
+            backupOp.success(start, 0);
+            return true;
+
+        } catch (Exception e) {
+            backupOp.failure(start, e);
+            System.err.println("Database backup failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Drops the secondary indexes of the contacts table ahead of a bulk
+     * load, so rows are not sorted into every index one at a time. Returns
+     * the names that were dropped, for rebuildContactIndexes. A marker in
+     * schema_version records the drop until the rebuild clears it.
+     */
+    List<String> dropContactIndexes() throws SQLException {
+        List<String> dropped = new ArrayList<>();
+        try (Connection conn = pool.borrow();
+             Statement st = conn.createStatement()) {
+            for (String[] index : SchemaMigrator.CONTACT_INDEXES) {
+                if (indexExists(conn, "contacts", index[0])) dropped.add(index[0]);
+            }
+            if (indexExists(conn, "contacts", SchemaMigrator.FULLTEXT_INDEX)) {
+                dropped.add(SchemaMigrator.FULLTEXT_INDEX);
+            }
+            if (!dropped.isEmpty()) {
+                SchemaMigrator.markIndexesDropped(conn, true);
+                StringBuilder ddl = new StringBuilder("ALTER TABLE contacts ");
+                for (int i = 0; i < dropped.size(); i++) {
+                    ddl.append(i == 0 ? "DROP INDEX " : ", DROP INDEX ").append(dropped.get(i));
+                }
+                st.execute(ddl.toString());
+            }
+        }
+        return dropped;
+    }
+
+    /*
+     * Recreates dropped indexes. The B-tree indexes are added in one ALTER
+     * so InnoDB scans the table once and bulk-builds each from sorted runs;
+     * InnoDB only adds a FULLTEXT index on its own.
+     */
+    void rebuildContactIndexes(List<String> names) throws SQLException {
+        StringBuilder ddl = new StringBuilder();
+        for (String[] index : SchemaMigrator.CONTACT_INDEXES) {
+            if (names.contains(index[0])) {
+                ddl.append(ddl.length() == 0 ? "ALTER TABLE contacts ADD INDEX " : ", ADD INDEX ")
+                   .append(index[0]).append(' ').append(index[1]);
+            }
+        }
+        try (Connection conn = pool.borrow();
+             Statement st = conn.createStatement()) {
+            if (ddl.length() > 0) {
+                st.execute(ddl.toString());
+            }
+            if (names.contains(SchemaMigrator.FULLTEXT_INDEX)) {
+                SchemaMigrator.alterOnline(conn, "ALTER TABLE contacts ADD FULLTEXT INDEX " +
+                        SchemaMigrator.FULLTEXT_INDEX + " " + SchemaMigrator.FULLTEXT_COLUMNS);
+            }
+            // Fresh statistics so the optimizer sees the new table size
+            st.execute("ANALYZE TABLE contacts");
+            SchemaMigrator.markIndexesDropped(conn, false);
+        }
+    }
+
+    // Drop in-memory data derived from the contacts table after bulk changes
+    void invalidateCaches() {
+        searchIndex = null;
+        if (contactCache != null) contactCache.clear();
+    }
+
+    /*
+     * Trigram index over all contacts, built on first use. The empty index
+     * is published before the contacts are read, so a write that commits
+     * after that read still reaches it; build() keeps those writes over the
+     * older snapshot rows. Searches wait until the build is done.
+     */
+    private TrigramIndex searchIndex() {
+        TrigramIndex index = searchIndex;
+        if (index == null || !index.isBuilt()) {
+            synchronized (this) {
+                index = searchIndex;
+                if (index == null || !index.isBuilt()) {
+                    index = new TrigramIndex();
+                    searchIndex = index;
+                    index.build(getAllContacts());
+                }
+            }
+        }
+        return index;
+    }
+
+    // Whether searchContacts may answer with FULLTEXT word matches instead of substrings
+    public boolean isFullTextSearchEnabled() {
+        return FULLTEXT_ENABLED;
+    }
+
+    /*
+     * Builds a boolean-mode query requiring every word as a prefix, e.g.
+     * "john smi" -> "+john* +smi*". Words are split on the same punctuation
+     * the FULLTEXT parser splits on, which also drops boolean operators.
+     * Returns null when the LIKE path should be used instead: phone
+     * fragments, and words shorter than the FULLTEXT minimum token size,
+     * which the index cannot find.
+     */
+    private static String toBooleanQuery(String term) {
+        if (term.matches("[0-9+()\\-\\s]+")) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String word : term.split("[^\\p{L}\\p{N}_]+")) {
+            if (word.isEmpty()) continue;
+            if (word.length() < FULLTEXT_MIN_WORD) {
+                return null;
+            }
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('+').append(word).append('*');
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    // Contact indexes a bulk load drops that the contacts table does not have, in one query
+    private static List<String> missingContactIndexes(Connection conn) throws SQLException {
+        Set<String> present = new HashSet<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT DISTINCT index_name FROM information_schema.statistics " +
+                                            "WHERE table_schema = DATABASE() AND table_name = 'contacts'")) {
+            while (rs.next()) {
+                present.add(rs.getString(1));
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (String[] index : SchemaMigrator.CONTACT_INDEXES) {
+            if (!present.contains(index[0])) missing.add(index[0]);
+        }
+        if (FULLTEXT_ENABLED && !present.contains(SchemaMigrator.FULLTEXT_INDEX)) {
+            missing.add(SchemaMigrator.FULLTEXT_INDEX);
+        }
+        return missing;
+    }
+
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        String query = "SELECT 1 FROM information_schema.statistics " +
+                       "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1";
+        try (PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setString(1, table);
+            ps.setString(2, index);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /*
+     * Digits of a formatted phone number such as "(234) 567-89", or null
+     * for any other term. Terms of plain digits return null: stored phones
+     * are digits already, so phone LIKE finds them without evaluating the
+     * phone_digits expression on every row. The trigram index and the
+     * search pipeline's in-memory narrowing do not apply this rule, so
+     * such terms always go to the database.
+     */
+    static String phoneDigits(String term) {
+        StringBuilder digits = new StringBuilder(term.length());
+        boolean formatted = false;
+        for (int i = 0; i < term.length(); i++) {
+            char ch = term.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digits.append(ch);
+            } else if (PHONE_SEPARATORS.indexOf(ch) >= 0) {
+                formatted = true;
+            } else {
+                return null;
+            }
+        }
+        return formatted && digits.length() >= 3 ? digits.toString() : null;
+    }
+
+    // True when the term holds LIKE metacharacters; such terms are only matched by SQL
+    static boolean hasLikeWildcard(String term) {
+        return term.indexOf('%') >= 0 || term.indexOf('_') >= 0 || term.indexOf('\\') >= 0;
+    }
+
+    // Helper mapper
+    private Contact mapContact(ResultSet rs) throws SQLException {
+
+        Timestamp created = rs.getTimestamp("created_at");
+        Timestamp updated = rs.getTimestamp("updated_at");
+
+        return new Contact(rs.getInt("id"),
+                           rs.getString("name"),
+                           rs.getString("phone"),
+                           rs.getString("email"),
+                           rs.getString("address"),
+                           rs.getString("notes"),
+                           created != null ? created.toLocalDateTime() : null,
+                           updated != null ? updated.toLocalDateTime() : null);
+    }
+
+    /**
+     * Borrows a pooled connection. Callers must close it (try-with-resources)
+     * to hand it back to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        return pool.borrow();
+    }
+
+    // Which database this manager talks to, as user@url
+    public String getDatabaseId() {
+        return DB_USER + "@" + DB_URL;
+    }
+
+    // Pool statistics
+    public ConnectionPool.Stats getPoolStats() {
+        return pool.getStats();
+    }
+
+    // Contact cache statistics, or null when the cache is disabled
+    public ContactCache.Stats getContactCacheStats() {
+        return contactCache != null ? contactCache.getStats() : null;
+    }
+
+    // Per-operation call counts, errors, rows and latency percentiles
+    public DatabaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Queries that ran past the slow query threshold, with their plans
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueries;
+    }
+
+    // Release all pooled connections
+    public void shutdown() {
+        if (async != null) {
+            async.shutdown();
+        }
+        metrics.close();
+        slowQueries.close();
+        pool.close();
+    }
+
+    /**
+     * Contacts changed since a watermark, as returned by getContactsChangedSince.
+     */
+    public static final class ChangeSet {
+        private final List<Contact> upserts;
+        private final List<Integer> deletedIds;
+        private final Timestamp watermark;
+        private final boolean complete;
+
+        ChangeSet(List<Contact> upserts, List<Integer> deletedIds, Timestamp watermark, boolean complete) {
+            this.upserts = upserts;
+            this.deletedIds = deletedIds;
+            this.watermark = watermark;
+            this.complete = complete;
+        }
+
+        // Inserted or updated contacts, oldest change first
+        public List<Contact> getUpserts() { return upserts; }
+        public List<Integer> getDeletedIds() { return deletedIds; }
+        // Pass to the next getContactsChangedSince call
+        public Timestamp getWatermark() { return watermark; }
+        // False when deletes may be missing because their tombstones were pruned; reload instead
+        public boolean isComplete() { return complete; }
+
+        public boolean isEmpty() {
+            return upserts.isEmpty() && deletedIds.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "ChangeSet{upserts=" + upserts.size() + ", deleted=" + deletedIds.size() +
+                   ", watermark=" + watermark + "}";
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package addressbook;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Database Metrics Class
+ * Per-operation counters for DatabaseManager: calls, errors by SQLState,
+ * rows returned and a latency histogram, plus gauges for the connection
+ * pool and the contact cache. Recording is a couple of striped counter
+ * increments and one array slot, so it is cheap enough to stay on.
+ * Published as an MXBean under addressbook:type=DatabaseMetrics and,
+ * optionally, dumped to the log at a fixed interval.
+ */
+public class DatabaseMetrics implements DatabaseMetricsMXBean {
+
+    public static final String OBJECT_NAME = "addressbook:type=DatabaseMetrics";
+
+    private final DatabaseManager dbManager;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private ScheduledExecutorService dumper;
+    private ObjectName registeredName;
+
+    DatabaseMetrics(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    // The counters for one named operation, created on first use
+    public Operation operation(String name) {
+        return operations.computeIfAbsent(name, Operation::new);
+    }
+
+    // Register the MXBean with the platform MBean server
+    void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            registeredName = name;
+        } catch (JMException e) {
+            System.err.println("Failed to register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    // Print dump() every interval on a daemon thread
+    synchronized void startDump(long intervalSeconds) {
+        if (dumper != null || intervalSeconds <= 0) return;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "addressbook-metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> System.out.println(dump()),
+                                   intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    synchronized void close() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+        if (registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            } catch (JMException e) {
+                // Already gone
+            }
+            registeredName = null;
+        }
+    }
+
+    @Override
+    public List<OperationSnapshot> getOperations() {
+        List<OperationSnapshot> list = new ArrayList<>();
+        for (Operation op : new TreeMap<>(operations).values()) {
+            list.add(op.snapshot());
+        }
+        return list;
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (Operation op : operations.values()) total += op.calls.sum();
+        return total;
+    }
+
+    @Override
+    public long getTotalErrors() {
+        long total = 0;
+        for (Operation op : operations.values()) total += op.errors.sum();
+        return total;
+    }
+
+    @Override
+    public int getPoolActive() { return dbManager.getPoolStats().getActive(); }
+
+    @Override
+    public int getPoolIdle() { return dbManager.getPoolStats().getIdle(); }
+
+    @Override
+    public int getPoolWaiting() { return dbManager.getPoolStats().getWaiting(); }
+
+    @Override
+    public int getPoolTotal() { return dbManager.getPoolStats().getTotal(); }
+
+    @Override
+    public double getStatementCacheHitRatio() { return dbManager.getPoolStats().getStatementCacheHitRatio(); }
+
+    @Override
+    public int getContactCacheSize() {
+        ContactCache.Stats stats = dbManager.getContactCacheStats();
+        return stats == null ? 0 : stats.getSize();
+    }
+
+    @Override
+    public double getContactCacheHitRatio() {
+        ContactCache.Stats stats = dbManager.getContactCacheStats();
+        return stats == null ? 0.0 : stats.getHitRatio();
+    }
+
+    @Override
+    public void reset() {
+        for (Operation op : operations.values()) {
+            op.reset();
+        }
+    }
+
+    // Plain-text table of every operation and the gauges
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder("Database metrics\n");
+        sb.append(String.format("  %-28s %10s %8s %12s %9s %9s %9s %9s%n",
+                                "operation", "calls", "errors", "rows", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (OperationSnapshot s : getOperations()) {
+            sb.append(String.format("  %-28s %10d %8d %12d %9.2f %9.2f %9.2f %9.2f%n",
+                                    s.getName(), s.getCalls(), s.getErrors(), s.getRows(),
+                                    s.getP50Millis(), s.getP95Millis(), s.getP99Millis(), s.getMaxMillis()));
+            if (!s.getErrorsBySqlState().isEmpty()) {
+                sb.append("      errors by SQLState: ").append(s.getErrorsBySqlState()).append('\n');
+            }
+        }
+        sb.append("  ").append(dbManager.getPoolStats()).append('\n');
+        ContactCache.Stats cache = dbManager.getContactCacheStats();
+        if (cache != null) {
+            sb.append("  ").append(cache).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Counters for one operation. Call success or failure with the
+     * System.nanoTime() taken when the operation started.
+     */
+    public static final class Operation {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final Map<String, LongAdder> errorsBySqlState = new ConcurrentHashMap<>();
+        private final Histogram latency = new Histogram();
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        public void success(long startNanos, long rowCount) {
+            calls.increment();
+            if (rowCount > 0) rows.add(rowCount);
+            latency.record(System.nanoTime() - startNanos);
+        }
+
+        // Errors are keyed by SQLState, or by exception type when there is none
+        public void failure(long startNanos, Exception e) {
+            calls.increment();
+            errors.increment();
+            String state = e instanceof SQLException && ((SQLException) e).getSQLState() != null
+                    ? ((SQLException) e).getSQLState() : e.getClass().getSimpleName();
+            errorsBySqlState.computeIfAbsent(state, k -> new LongAdder()).increment();
+            latency.record(System.nanoTime() - startNanos);
+        }
+
+        void reset() {
+            calls.reset();
+            errors.reset();
+            rows.reset();
+            errorsBySqlState.clear();
+            latency.reset();
+        }
+
+        OperationSnapshot snapshot() {
+            Map<String, Long> states = new TreeMap<>();
+            for (Map.Entry<String, LongAdder> e : errorsBySqlState.entrySet()) {
+                states.put(e.getKey(), e.getValue().sum());
+            }
+            return new OperationSnapshot(name, calls.sum(), errors.sum(), rows.sum(), states,
+                                         latency.percentile(0.50), latency.percentile(0.95),
+                                         latency.percentile(0.99), latency.max());
+        }
+    }
+
+    /**
+     * Point-in-time view of one operation, as exposed through JMX.
+     */
+    public static final class OperationSnapshot {
+        private final String name;
+        private final long calls;
+        private final long errors;
+        private final long rows;
+        private final Map<String, Long> errorsBySqlState;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        public OperationSnapshot(String name, long calls, long errors, long rows, Map<String, Long> errorsBySqlState,
+                                 long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+            this.name = name;
+            this.calls = calls;
+            this.errors = errors;
+            this.rows = rows;
+            this.errorsBySqlState = errorsBySqlState;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public String getName() { return name; }
+        public long getCalls() { return calls; }
+        public long getErrors() { return errors; }
+        public long getRows() { return rows; }
+        public Map<String, Long> getErrorsBySqlState() { return errorsBySqlState; }
+        public double getP50Millis() { return p50Nanos / 1e6; }
+        public double getP95Millis() { return p95Nanos / 1e6; }
+        public double getP99Millis() { return p99Nanos / 1e6; }
+        public double getMaxMillis() { return maxNanos / 1e6; }
+    }
+
+    /*
+     * Log-linear latency histogram in microseconds: exact below 16 us, then
+     * eight buckets per power of two, so any percentile is within 12.5%.
+     * Bucket counts are plain atomic slots; max is tracked exactly.
+     */
+    private static final class Histogram {
+        private static final int LINEAR = 16;
+        private static final int SUB_BUCKETS = 8;
+        private static final int BUCKETS = LINEAR + (64 - 4) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            counts.incrementAndGet(bucket(micros));
+            maxNanos.accumulate(nanos);
+        }
+
+        long max() {
+            return maxNanos.get();
+        }
+
+        // Upper bound of the bucket holding the quantile, in nanoseconds
+        long percentile(double quantile) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i) * 1000, max());
+                }
+            }
+            return max();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+            maxNanos.reset();
+        }
+
+        private static int bucket(long micros) {
+            if (micros < LINEAR) return (int) micros;
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) (micros >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+            return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < LINEAR) return bucket + 1;
+            int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+            int sub = (bucket - LINEAR) % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + sub + 1) << (exponent - 3);
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package addressbook;
+
+import java.util.List;
+
+/**
+ * Database Metrics MXBean Interface
+ * JMX view of DatabaseMetrics: one entry per DatabaseManager operation
+ * plus connection pool and contact cache gauges.
+ */
+public interface DatabaseMetricsMXBean {
+
+    List<DatabaseMetrics.OperationSnapshot> getOperations();
+
+    long getTotalCalls();
+    long getTotalErrors();
+
+    int getPoolActive();
+    int getPoolIdle();
+    int getPoolWaiting();
+    int getPoolTotal();
+    double getStatementCacheHitRatio();
+
+    int getContactCacheSize();
+    double getContactCacheHitRatio();
+
+    // Zero every operation counter
+    void reset();
+
+    // The same text as the periodic log dump
+    String dump();
+}
@@ -0,0 +1,46 @@
+package addressbook;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Query Handle Class
+ * Lets a caller cancel a running JDBC statement from another thread.
+ * DatabaseManager attaches the statement while it executes; cancel() calls
+ * Statement.cancel() on it, or cancels it as soon as it is attached.
+ */
+public class QueryHandle {
+    private Statement statement;
+    private boolean cancelled;
+
+    synchronized void attach(Statement statement) throws SQLException {
+        this.statement = statement;
+        if (cancelled) {
+            statement.cancel();
+        }
+    }
+
+    synchronized void detach() {
+        this.statement = null;
+    }
+
+    public void cancel() {
+        Statement running;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            running = statement;
+        }
+        if (running != null) {
+            try {
+                running.cancel();
+            } catch (SQLException e) {
+                System.err.println("Failed to cancel query: " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,388 @@
+package addressbook;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Schema Migrator Class
+ * Brings the database schema up to date with an ordered list of numbered
+ * migrations. Each applied migration is recorded in the schema_version
+ * table with a checksum of its definition, so a start against an
+ * up-to-date database costs one small SELECT, and a migration that was
+ * edited after it ran is reported instead of silently diverging.
+ *
+ * Migrations are never changed once released; a schema change is a new
+ * migration at the end of the list. The early ones also adopt databases
+ * created before schema_version existed: tables use IF NOT EXISTS and
+ * columns and indexes are only added when missing. Indexes and columns
+ * are added with ALGORITHM=INPLACE, LOCK=NONE so other clients can keep
+ * reading and writing contacts meanwhile.
+ *
+ * A migration can be opt-in: it only runs for a migrator created with
+ * opt-in migrations enabled, and is then recorded like any other. The
+ * FULLTEXT index, which costs every write, is one.
+ *
+ * schema_version also holds one row that is not a migration: version -1
+ * is written while a bulk load has the contact indexes dropped, so the
+ * next start can tell from the same SELECT whether one stopped halfway.
+ */
+public class SchemaMigrator {
+
+    /**
+     * The work of one migration, run on a connection in auto-commit mode.
+     */
+    interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final String CREATE_VERSION_TABLE =
+            "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY," +
+            "description VARCHAR(200) NOT NULL," +
+            "checksum BIGINT NOT NULL," +
+            "execution_ms INT NOT NULL," +
+            "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")";
+
+    // MySQL error when an ALTER cannot run with the requested ALGORITHM or LOCK
+    private static final int ER_ALTER_OPERATION_NOT_SUPPORTED = 1845;
+    private static final int ER_ALTER_OPERATION_NOT_SUPPORTED_REASON = 1846;
+    private static final int LOCK_TIMEOUT_SECONDS = Integer.getInteger("addressbook.schema.lockTimeoutSec", 60);
+
+    // schema_version row present while a bulk load has dropped the contact indexes
+    static final int INDEXES_DROPPED = -1;
+
+    /*
+     * Secondary indexes on contacts, as name and column list: keyset paging
+     * by name, the updated_at change feed, and sorted paging by phone and
+     * by created_at (InnoDB appends id to each). Migration 3 creates them
+     * and bulk loads drop and rebuild them; the primary key and the UNIQUE
+     * email index stay. A new index needs a new migration, not an entry here.
+     */
+    static final String[][] CONTACT_INDEXES = {
+        { "idx_contacts_name_id", "(name, id)" },
+        { "idx_contacts_updated_at", "(updated_at)" },
+        { "idx_contacts_phone_id", "(phone, id)" },
+        { "idx_contacts_created_at_id", "(created_at, id)" }
+    };
+
+    // FULLTEXT index for word searches, created by opt-in migration 6
+    static final String FULLTEXT_INDEX = "ft_contacts_text";
+    static final String FULLTEXT_COLUMNS = "(name, email, address, notes)";
+
+    private static final String[] SAMPLE_CONTACTS = {
+        "('John Smith','1234567890','john.smith@email.com','123 Main St','Software Engineer')",
+        "('Sarah Johnson','2345678901','sarah.johnson@email.com','456 Oak Ave','Marketing Manager')",
+        "('Michael Brown','3456789012','michael.brown@email.com','789 Pine Rd','Data Analyst')",
+        "('Emily Davis','4567890123','emily.davis@email.com','321 Elm St','UX Designer')"
+    };
+
+    // Phone number without the '+' and the separators people type, for searches like "(234) 567-8901"
+    private static final String PHONE_DIGITS_COLUMN =
+            "phone_digits VARCHAR(20) AS (REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(" +
+            "phone, '+', ''), ' ', ''), '-', ''), '(', ''), ')', ''), '.', '')) VIRTUAL";
+
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+        sql(1, "Contacts and users tables",
+            "CREATE TABLE IF NOT EXISTS contacts (" +
+            "id INT AUTO_INCREMENT PRIMARY KEY," +
+            "name VARCHAR(100) NOT NULL," +
+            "phone VARCHAR(20) NOT NULL," +
+            "email VARCHAR(100) NOT NULL UNIQUE," +
+            "address TEXT," +
+            "notes TEXT," +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS users (" +
+            "id INT AUTO_INCREMENT PRIMARY KEY," +
+            "username VARCHAR(50) NOT NULL UNIQUE," +
+            "password VARCHAR(100) NOT NULL," +
+            "email VARCHAR(100) NOT NULL UNIQUE," +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "INSERT IGNORE INTO users (username, password, email) " +
+            "VALUES ('admin','admin123','admin@addressbook.com')"),
+
+        // One row per deleted contact so the change feed can report deletes
+        sql(2, "Contact tombstones for the change feed",
+            "CREATE TABLE IF NOT EXISTS contact_tombstones (" +
+            "contact_id INT PRIMARY KEY," +
+            "deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "INDEX idx_tombstones_deleted_at (deleted_at)" +
+            ")"),
+
+        indexes(3, "Contact indexes for paging, sorting and the change feed", "contacts", CONTACT_INDEXES),
+
+        new Migration(4, "Normalized phone digits", PHONE_DIGITS_COLUMN,
+            conn -> addColumn(conn, "contacts", "phone_digits", PHONE_DIGITS_COLUMN)),
+
+        // Only into a new, empty book; a user who deletes them does not get them back
+        new Migration(5, "Sample contacts", String.join(",", SAMPLE_CONTACTS),
+            SchemaMigrator::insertSampleContacts),
+
+        // Opt-in with -Daddressbook.search.fulltext=true
+        new Migration(6, "FULLTEXT index for word searches", FULLTEXT_INDEX + " " + FULLTEXT_COLUMNS,
+            conn -> addIndexes(conn, "contacts", "FULLTEXT INDEX",
+                               new String[][] { { FULLTEXT_INDEX, FULLTEXT_COLUMNS } }),
+            true)
+    ));
+
+    private final List<Migration> migrations;
+    private final boolean withOptIn;
+    private boolean indexesDropped;
+
+    public SchemaMigrator() {
+        this(false);
+    }
+
+    // withOptIn also applies the opt-in migrations not applied yet
+    public SchemaMigrator(boolean withOptIn) {
+        this(MIGRATIONS, withOptIn);
+    }
+
+    SchemaMigrator(List<Migration> migrations, boolean withOptIn) {
+        this.migrations = migrations;
+        this.withOptIn = withOptIn;
+    }
+
+    // Version the schema has after all migrations of this build
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version;
+    }
+
+    /**
+     * Applies the migrations the database has not seen yet and returns how
+     * many ran. When the schema is current this is a single SELECT. Other
+     * clients starting at the same time wait on a named lock, then find
+     * the work done.
+     */
+    public int migrate(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = readApplied(conn);
+        indexesDropped = applied.containsKey(INDEXES_DROPPED);
+        if (pending(applied).isEmpty()) {
+            return 0;
+        }
+
+        try (PreparedStatement lock = conn.prepareStatement("SELECT GET_LOCK(CONCAT('addressbook.schema.', DATABASE()), ?)")) {
+            lock.setInt(1, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = lock.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another client's schema migration");
+                }
+            }
+        }
+        try {
+            try (Statement st = conn.createStatement()) {
+                st.execute(CREATE_VERSION_TABLE);
+            }
+            // Another client may have migrated while this one waited for the lock
+            List<Migration> pending = pending(readApplied(conn));
+            for (Migration migration : pending) {
+                apply(conn, migration);
+            }
+            return pending.size();
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DO RELEASE_LOCK(CONCAT('addressbook.schema.', DATABASE()))");
+            }
+        }
+    }
+
+    // Whether the last migrate() found the marker of a bulk load that dropped the contact indexes
+    public boolean hasDroppedIndexes() {
+        return indexesDropped;
+    }
+
+    // Sets or clears the INDEXES_DROPPED marker
+    static void markIndexesDropped(Connection conn, boolean dropped) throws SQLException {
+        String sql = dropped
+                ? "INSERT INTO schema_version (version, description, checksum, execution_ms) " +
+                  "VALUES (?, 'Contact indexes dropped by a bulk load', 0, 0) " +
+                  "ON DUPLICATE KEY UPDATE applied_at = CURRENT_TIMESTAMP"
+                : "DELETE FROM schema_version WHERE version = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, INDEXES_DROPPED);
+            ps.executeUpdate();
+        }
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            migration.step.apply(conn);
+        } catch (SQLException e) {
+            throw new SQLException("Schema migration " + migration.version + " (" + migration.description +
+                                   ") failed: " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+            ps.setInt(1, migration.version);
+            ps.setString(2, migration.description);
+            ps.setLong(3, migration.checksum);
+            ps.setInt(4, (int) Math.min(millis, Integer.MAX_VALUE));
+            ps.executeUpdate();
+        }
+        System.out.println("Applied schema migration " + migration.version + ": " + migration.description +
+                           " (" + millis + " ms)");
+    }
+
+    // version -> checksum of every applied migration; empty before the first migration
+    private static Map<Integer, Long> readApplied(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new TreeMap<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        } catch (SQLException e) {
+            if (!"42S02".equals(e.getSQLState())) throw e; // No such table: nothing applied yet
+        }
+        return applied;
+    }
+
+    // Migrations still to run, after checking the applied ones against this build
+    private List<Migration> pending(Map<Integer, Long> applied) throws SQLException {
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.version);
+            if (checksum == null) {
+                if (withOptIn || !migration.optIn) pending.add(migration);
+            } else if (checksum != migration.checksum) {
+                throw new SQLException("Schema migration " + migration.version + " (" + migration.description +
+                                       ") was changed after it was applied; add a new migration instead");
+            }
+        }
+        for (int version : applied.keySet()) {
+            if (version > getLatestVersion()) {
+                System.err.println("Database schema version " + version + " is newer than this build (" +
+                                   getLatestVersion() + ")");
+                break;
+            }
+        }
+        return pending;
+    }
+
+    static void insertSampleContacts(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT EXISTS (SELECT 1 FROM contacts)")) {
+            if (rs.next() && !rs.getBoolean(1)) {
+                st.execute("INSERT INTO contacts (name, phone, email, address, notes) VALUES " +
+                           String.join(",", SAMPLE_CONTACTS));
+            }
+        }
+    }
+
+    private static void addColumn(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT 1 FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ? LIMIT 1")) {
+            ps.setString(1, table);
+            ps.setString(2, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return;
+            }
+        }
+        alterOnline(conn, "ALTER TABLE " + table + " ADD COLUMN " + definition);
+    }
+
+    // Adds the indexes of the kind that are missing in one ALTER, so the table is scanned once
+    private static void addIndexes(Connection conn, String table, String kind, String[][] indexes)
+            throws SQLException {
+        StringBuilder ddl = new StringBuilder();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT 1 FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1")) {
+            for (String[] index : indexes) {
+                ps.setString(1, table);
+                ps.setString(2, index[0]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) continue;
+                }
+                ddl.append(ddl.length() == 0 ? "ALTER TABLE " + table + " ADD " : ", ADD ").append(kind).append(' ')
+                   .append(index[0]).append(' ').append(index[1]);
+            }
+        }
+        if (ddl.length() > 0) {
+            alterOnline(conn, ddl.toString());
+        }
+    }
+
+    /*
+     * Runs the ALTER without blocking concurrent DML. A server that cannot
+     * do that for this change (older versions, some column types) rejects
+     * the clause, and the ALTER is retried with the server's defaults.
+     */
+    static void alterOnline(Connection conn, String ddl) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            try {
+                st.execute(ddl + ", ALGORITHM=INPLACE, LOCK=NONE");
+            } catch (SQLException e) {
+                if (e.getErrorCode() != ER_ALTER_OPERATION_NOT_SUPPORTED
+                        && e.getErrorCode() != ER_ALTER_OPERATION_NOT_SUPPORTED_REASON) {
+                    throw e;
+                }
+                System.err.println("Online schema change not supported, locking the table: " + e.getMessage());
+                st.execute(ddl);
+            }
+        }
+    }
+
+    private static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, String.join(";\n", statements), conn -> {
+            try (Statement st = conn.createStatement()) {
+                for (String statement : statements) {
+                    st.execute(statement);
+                }
+            }
+        });
+    }
+
+    private static Migration indexes(int version, String description, String table, String[][] indexes) {
+        StringBuilder definition = new StringBuilder(table);
+        for (String[] index : indexes) {
+            definition.append('\n').append(index[0]).append(' ').append(index[1]);
+        }
+        return new Migration(version, description, definition.toString(),
+                             conn -> addIndexes(conn, table, "INDEX", indexes));
+    }
+
+    /**
+     * One numbered schema change. The checksum covers its definition: the
+     * SQL it runs, or the indexes or column it adds.
+     */
+    static final class Migration {
+        final int version;
+        final String description;
+        final long checksum;
+        final Step step;
+        final boolean optIn;
+
+        Migration(int version, String description, String definition, Step step) {
+            this(version, description, definition, step, false);
+        }
+
+        Migration(int version, String description, String definition, Step step, boolean optIn) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+            this.optIn = optIn;
+            CRC32 crc = new CRC32();
+            crc.update(definition.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package addressbook;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.swing.Timer;
+
+/**
+ * Search Pipeline Class
+ * Turns keystrokes in the search field into as few database queries as
+ * possible. Terms are debounced, a newer term cancels the statement of an
+ * older one, and a term that contains the previous term is answered by
+ * narrowing the previous result in memory. All public methods are called
+ * on the Swing event dispatch thread, and results are delivered there.
+ */
+public class SearchPipeline {
+
+    /**
+     * Receives search results on the event dispatch thread.
+     */
+    public interface Listener {
+        void onResults(String term, List<Contact> contacts);
+        void onError(String term, Throwable error);
+    }
+
+    private final DatabaseManager dbManager;
+    private final Listener listener;
+    private final Timer debounceTimer;
+
+    private String pendingTerm = "";
+    private QueryHandle inFlight;
+    private int generation;
+
+    // Last complete result, used to narrow follow-up terms without a query
+    private String lastTerm;
+    private List<Contact> lastResults;
+    // Last unfiltered load, reused when the search field is cleared
+    private List<Contact> allContacts;
+
+    public SearchPipeline(DatabaseManager dbManager, int debounceMillis, Listener listener) {
+        this.dbManager = dbManager;
+        this.listener = listener;
+        this.debounceTimer = new Timer(debounceMillis, e -> execute(pendingTerm));
+        this.debounceTimer.setRepeats(false);
+    }
+
+    // Schedule a search once typing pauses for the debounce window
+    public void submit(String term) {
+        pendingTerm = term == null ? "" : term.trim();
+        cancelInFlight();
+        debounceTimer.restart();
+    }
+
+    // Run a search immediately, skipping the debounce window
+    public void submitNow(String term) {
+        pendingTerm = term == null ? "" : term.trim();
+        debounceTimer.stop();
+        execute(pendingTerm);
+    }
+
+    // Drop any pending or running search without delivering a result
+    public void cancel() {
+        debounceTimer.stop();
+        cancelInFlight();
+        generation++;
+    }
+    
+    // Forget cached results, e.g. after the contacts table was modified
+    public void invalidate() {
+        lastTerm = null;
+        lastResults = null;
+        allContacts = null;
+    }
+
+    public void setDebounceMillis(int debounceMillis) {
+        debounceTimer.setInitialDelay(debounceMillis);
+        debounceTimer.setDelay(debounceMillis);
+    }
+
+    public int getDebounceMillis() {
+        return debounceTimer.getInitialDelay();
+    }
+
+    private void execute(String term) {
+        cancelInFlight();
+        int request = ++generation;
+
+        if (term.isEmpty() && allContacts != null) {
+            deliver(request, term, allContacts);
+            return;
+        }
+        if (canNarrow(term)) {
+            deliver(request, term, narrow(lastResults, term));
+            return;
+        }
+
+        QueryHandle handle = new QueryHandle();
+        inFlight = handle;
+
+        AsyncDatabaseManager async = dbManager.async();
+        (term.isEmpty() ? async.getAllContacts(handle) : async.searchContacts(term, handle))
+            .whenCompleteAsync((contacts, error) -> {
+                if (handle == inFlight) {
+                    inFlight = null;
+                }
+                // A cancelled query may have returned a partial list; never cache it
+                if (request != generation || handle.isCancelled()) return;
+                if (error != null) {
+                    listener.onError(term, error);
+                    return;
+                }
+                if (term.isEmpty()) {
+                    allContacts = contacts;
+                }
+                deliver(request, term, contacts);
+            }, AsyncDatabaseManager.EDT);
+    }
+
+    private void deliver(int request, String term, List<Contact> contacts) {
+        if (request != generation) return;
+        lastTerm = term;
+        lastResults = contacts;
+        listener.onResults(term, new ArrayList<>(contacts));
+    }
+
+    private void cancelInFlight() {
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+    }
+
+    /*
+     * Every row matching LIKE '%term%' also matches '%prev%' when term
+     * contains prev, so the previous result is a superset. Terms with LIKE
+     * wildcards, formatted phone numbers (matched against the stored digits)
+     * and FULLTEXT word searches are always sent to the database.
+     */
+    private boolean canNarrow(String term) {
+        if (dbManager.isFullTextSearchEnabled()) {
+            return false;
+        }
+        if (lastResults == null || lastTerm == null || lastTerm.isEmpty() || term.isEmpty()) {
+            return false;
+        }
+        if (DatabaseManager.hasLikeWildcard(term) || DatabaseManager.phoneDigits(term) != null) {
+            return false;
+        }
+        return term.toLowerCase(Locale.ROOT).contains(lastTerm.toLowerCase(Locale.ROOT));
+    }
+
+    // In-memory equivalent of the searchContacts WHERE clause
+    static List<Contact> narrow(List<Contact> contacts, String term) {
+        int[] matches = ContactSorter.filter(contacts, term, false);
+        List<Contact> result = new ArrayList<>(matches.length);
+        for (int row : matches) {
+            result.add(contacts.get(row));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,264 @@
+package addressbook;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slow Query Log Class
+ * Records DatabaseManager queries that take longer than a threshold: the
+ * SQL, its bound parameters, elapsed time and row count. SELECTs are run
+ * again under EXPLAIN so the plan is kept next to the timing. Entries go
+ * to a bounded in-memory ring, shown in the GUI, and are appended to a
+ * local log file that rotates by size. EXPLAIN and file writes happen on
+ * a background thread, so a slow query is not made slower by logging it.
+ */
+public class SlowQueryLog {
+
+    // Stands in for parameters that must not be logged, such as passwords
+    public static final String REDACTED = "***";
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final DatabaseManager dbManager;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final ArrayDeque<Entry> ring;
+    private final ThreadPoolExecutor worker;
+
+    /**
+     * A negative threshold turns the log off. A null file keeps entries
+     * in memory only; otherwise the file is rotated to file.1 .. file.N
+     * once it grows past maxFileBytes.
+     */
+    SlowQueryLog(DatabaseManager dbManager, long thresholdMillis, int capacity,
+                 Path file, long maxFileBytes, int maxFiles) {
+        this.dbManager = dbManager;
+        this.thresholdNanos = thresholdMillis < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.capacity = Math.max(1, capacity);
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.ring = new ArrayDeque<>(this.capacity);
+
+        // One thread and a short queue; under a storm of slow queries extra entries skip EXPLAIN and the file
+        worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64), r -> {
+            Thread t = new Thread(r, "addressbook-slow-query-log");
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public boolean isEnabled() {
+        return thresholdNanos != Long.MAX_VALUE;
+    }
+
+    public long getThresholdMillis() {
+        return isEnabled() ? TimeUnit.NANOSECONDS.toMillis(thresholdNanos) : -1;
+    }
+
+    /**
+     * Records the query if it ran past the threshold. startNanos is the
+     * System.nanoTime() taken before the query; params are the values
+     * bound to its placeholders, in order.
+     */
+    public void record(String operation, String sql, long startNanos, long rows, Object... params) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (elapsed < thresholdNanos) return;
+
+        Entry entry = new Entry(LocalDateTime.now(), operation, sql, describe(params), elapsed, rows);
+        synchronized (ring) {
+            if (ring.size() == capacity) {
+                ring.removeFirst();
+            }
+            ring.addLast(entry);
+        }
+        // The worker only sees the raw values long enough to bind them to EXPLAIN
+        worker.execute(() -> {
+            if (isSelect(sql)) {
+                entry.plan = explain(sql, params);
+            }
+            if (file != null) {
+                append(entry);
+            }
+        });
+    }
+
+    // Logged entries, oldest first
+    public List<Entry> getEntries() {
+        synchronized (ring) {
+            return new ArrayList<>(ring);
+        }
+    }
+
+    public void clear() {
+        synchronized (ring) {
+            ring.clear();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql.trim().regionMatches(true, 0, "SELECT", 0, 6);
+    }
+
+    private static List<String> describe(Object[] params) {
+        if (params == null || params.length == 0) return Collections.emptyList();
+        List<String> values = new ArrayList<>(params.length);
+        for (Object p : params) {
+            values.add(p instanceof String && !REDACTED.equals(p) ? "'" + p + "'" : String.valueOf(p));
+        }
+        return values;
+    }
+
+    // EXPLAIN on a separate pooled connection, one line per plan row
+    private String explain(String sql, Object[] params) {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    for (int c = 1; c <= meta.getColumnCount(); c++) {
+                        if (c > 1) plan.append("  ");
+                        plan.append(meta.getColumnLabel(c)).append('=').append(rs.getString(c));
+                    }
+                    plan.append('\n');
+                }
+            }
+            return plan.toString();
+
+        } catch (SQLException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private void append(Entry entry) {
+        try {
+            if (Files.exists(file) && Files.size(file) >= maxFileBytes) {
+                rotate();
+            }
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                                                       StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entry.format());
+                out.write(System.lineSeparator());
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write slow query log: " + e.getMessage());
+        }
+    }
+
+    // file -> file.1 -> file.2 ... dropping the oldest
+    private void rotate() throws IOException {
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = rotated(i);
+            if (Files.exists(from)) {
+                Files.move(from, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int n) {
+        return Paths.get(file.toString() + "." + n);
+    }
+
+    /**
+     * One slow query. The plan is filled in shortly after the entry is
+     * recorded, and stays null for statements other than SELECT.
+     */
+    public static final class Entry {
+        private final LocalDateTime time;
+        private final String operation;
+        private final String sql;
+        private final List<String> params;
+        private final long elapsedNanos;
+        private final long rows;
+        private volatile String plan;
+
+        Entry(LocalDateTime time, String operation, String sql, List<String> params, long elapsedNanos, long rows) {
+            this.time = time;
+            this.operation = operation;
+            this.sql = sql;
+            this.params = params;
+            this.elapsedNanos = elapsedNanos;
+            this.rows = rows;
+        }
+
+        public LocalDateTime getTime() { return time; }
+        public String getOperation() { return operation; }
+        public String getSql() { return sql; }
+        public List<String> getParams() { return params; }
+        public double getElapsedMillis() { return elapsedNanos / 1e6; }
+        public long getRows() { return rows; }
+        public String getPlan() { return plan; }
+
+        // Multi-line text as written to the log file
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "# %s %s %.1f ms, %d rows%n",
+                                    TIME_FORMAT.format(time), operation, getElapsedMillis(), rows));
+            sb.append(sql).append(System.lineSeparator());
+            if (!params.isEmpty()) {
+                sb.append("-- params: ").append(params).append(System.lineSeparator());
+            }
+            String p = plan;
+            if (p != null) {
+                for (String line : p.split("\n")) {
+                    sb.append("-- plan: ").append(line).append(System.lineSeparator());
+                }
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %.1f ms %d rows: %s %s",
+                                 operation, getElapsedMillis(), rows, sql, params);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package addressbook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram Index Class
+ * In-memory inverted index from character trigrams to contact ids over the
+ * name, phone, email and address fields (the columns searchContacts
+ * matches). A substring query is answered by intersecting the posting
+ * lists of its trigrams and verifying the few remaining candidates, so the
+ * cost follows the number of matches instead of the number of contacts.
+ */
+public class TrigramIndex {
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Integer, Contact> contacts = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ids put or removed before build(), null once built
+    private Set<Integer> written = new HashSet<>();
+
+    /**
+     * Loads a snapshot of all contacts, read after the index was created.
+     * Writes can reach the index while the snapshot is read: a contact put
+     * or removed since the index was created is newer than the snapshot, so
+     * its row in the snapshot is skipped.
+     */
+    public void build(Collection<Contact> all) {
+        lock.writeLock().lock();
+        try {
+            // Adding in id order keeps every posting list append-only
+            List<Contact> byId = new ArrayList<>(all);
+            byId.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+            for (Contact c : byId) {
+                if (written == null || !written.contains(c.getId())) {
+                    removeLocked(c.getId());
+                    addLocked(new Contact(c));
+                }
+            }
+            written = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Whether build() has loaded the snapshot
+    public boolean isBuilt() {
+        lock.readLock().lock();
+        try {
+            return written == null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Add or replace a contact
+    public void put(Contact c) {
+        lock.writeLock().lock();
+        try {
+            if (written != null) written.add(c.getId());
+            removeLocked(c.getId());
+            addLocked(new Contact(c));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Remove a contact by id
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (written != null) written.add(id);
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return contacts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns copies of the contacts whose name, phone, email or address
+     * contains the term, ignoring case, ordered by name.
+     */
+    public List<Contact> search(String term) {
+        String needle = normalize(term);
+        List<Contact> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                // Too short for a trigram; fall back to a scan
+                for (Contact c : contacts.values()) {
+                    if (matches(c, needle)) result.add(new Contact(c));
+                }
+            } else {
+                for (int id : candidates(needle)) {
+                    Contact c = contacts.get(id);
+                    if (matches(c, needle)) result.add(new Contact(c));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        result.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(
+                a.getName() == null ? "" : a.getName(),
+                b.getName() == null ? "" : b.getName()));
+        return result;
+    }
+
+    // Ids present in every posting list of the needle's trigrams
+    private int[] candidates(String needle) {
+        int count = needle.length() - 2;
+        PostingList[] lists = new PostingList[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            PostingList list = postings.get(trigram(needle, i));
+            if (list == null) {
+                return new int[0];
+            }
+            if (!containsList(lists, n, list)) {
+                lists[n++] = list;
+            }
+        }
+        lists = Arrays.copyOf(lists, n);
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        // Walk the shortest list and probe the others
+        PostingList smallest = lists[0];
+        int[] out = new int[smallest.size];
+        int found = 0;
+        outer:
+        for (int i = 0; i < smallest.size; i++) {
+            int id = smallest.ids[i];
+            for (int j = 1; j < lists.length; j++) {
+                if (!lists[j].contains(id)) continue outer;
+            }
+            out[found++] = id;
+        }
+        return Arrays.copyOf(out, found);
+    }
+
+    private static boolean containsList(PostingList[] lists, int n, PostingList list) {
+        for (int i = 0; i < n; i++) {
+            if (lists[i] == list) return true;
+        }
+        return false;
+    }
+
+    private void addLocked(Contact c) {
+        contacts.put(c.getId(), c);
+        for (String field : fields(c)) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                postings.computeIfAbsent(trigram(field, i), k -> new PostingList()).add(c.getId());
+            }
+        }
+    }
+
+    private void removeLocked(int id) {
+        Contact old = contacts.remove(id);
+        if (old == null) return;
+        for (String field : fields(old)) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                Long key = trigram(field, i);
+                PostingList list = postings.get(key);
+                if (list != null && list.remove(id) && list.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    private static boolean matches(Contact c, String needle) {
+        for (String field : fields(c)) {
+            if (field.contains(needle)) return true;
+        }
+        return false;
+    }
+
+    private static String[] fields(Contact c) {
+        return new String[] {
+            normalize(c.getName()), normalize(c.getPhone()),
+            normalize(c.getEmail()), normalize(c.getAddress())
+        };
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Sorted, duplicate-free list of contact ids.
+     */
+    private static final class PostingList {
+        private int[] ids = new int[4];
+        private int size;
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return false;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
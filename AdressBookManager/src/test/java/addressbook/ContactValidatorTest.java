@@ -0,0 +1,68 @@
+package addressbook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Contact Validator Test Class
+ * Checks the hand-written ContactValidator scanners against the regular
+ * expressions and trim() rules Contact.isValid* used before them, over a
+ * table of edge cases. Both must accept and reject the same inputs.
+ */
+public class ContactValidatorTest {
+
+    private static final Pattern OLD_EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern OLD_PHONE = Pattern.compile("^[+]?[0-9]{10,15}$");
+
+    private static final String[] PHONES = {
+        null, "", "+", "++1234567890",
+        "123456789", "1234567890", "123456789012345", "1234567890123456",
+        "+123456789", "+1234567890", "+123456789012345", "+1234567890123456",
+        "1234567890+", "12345+67890", " 1234567890", "1234567890 ",
+        "123-456-7890", "(123) 456-7890", "123456789a", "１２３４５６７８９０"
+    };
+
+    private static final String[] EMAILS = {
+        null, "", "@", "a@b.co", "a@b.c", "a@b", "@b.co", "a@.co",
+        "first.last@example.com", "first..last@example.com", "a@example..com", ".a@example.com",
+        "a.@example.com", "a@example.com.", "a+tag@example.com", "a_b-c@sub-domain.example.org",
+        "a@b@example.com", "a b@example.com", "a@example.c0m", "a@example.COM",
+        "a@123.45", "a@-example.com", "é@example.com", "a@example.com "
+    };
+
+    private static final String[] NAMES = {
+        null, "", " ", "   ", "\t\n", "A", " A ", "Al", " Al", "A l",
+        "  ", "Jo\u0000", "\u0001\u0002"
+    };
+
+    @Test
+    public void phoneMatchesOldRegex() {
+        for (String phone : PHONES) {
+            boolean expected = phone != null && OLD_PHONE.matcher(phone).matches();
+            assertEquals(expected, ContactValidator.isValidPhone(phone), "phone " + quote(phone));
+        }
+    }
+
+    @Test
+    public void emailMatchesOldRegex() {
+        for (String email : EMAILS) {
+            boolean expected = email != null && OLD_EMAIL.matcher(email).matches();
+            assertEquals(expected, ContactValidator.isValidEmail(email), "email " + quote(email));
+        }
+    }
+
+    @Test
+    public void nameMatchesOldTrimRule() {
+        for (String name : NAMES) {
+            boolean expected = name != null && name.trim().length() >= 2;
+            assertEquals(expected, ContactValidator.isValidName(name), "name " + quote(name));
+        }
+    }
+
+    private static String quote(String value) {
+        return value == null ? "null" : "\"" + value + "\"";
+    }
+}